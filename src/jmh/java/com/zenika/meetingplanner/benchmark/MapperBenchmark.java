@@ -0,0 +1,65 @@
+package com.zenika.meetingplanner.benchmark;
+
+import com.zenika.meetingplanner.dto.ReservationDto;
+import com.zenika.meetingplanner.dto.RoomDto;
+import com.zenika.meetingplanner.helper.Mapper;
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.model.Room;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DTO conversions of the reservation listing, run with -prof gc to get the allocation per operation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    private static final int LISTING_SIZE = 10000;
+
+    @Param({"12", "1000"})
+    private int rooms;
+
+    private List<Reservation> reservations;
+    private Reservation reservation;
+    private Room room;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Room> catalog = SyntheticData.rooms(rooms, SyntheticData.equipments());
+        reservations = SyntheticData.reservations(catalog, LISTING_SIZE);
+        reservation = reservations.get(0);
+        room = catalog.get(0);
+    }
+
+    @Benchmark
+    public RoomDto roomToRoomDto() {
+        return Mapper.RoomToRoomDto(room);
+    }
+
+    @Benchmark
+    public RoomDto roomToCachedRoomDto() {
+        return Mapper.RoomToCachedRoomDto(room);
+    }
+
+    @Benchmark
+    public ReservationDto reservationToReservationDto() {
+        return Mapper.ReservationToReservationDto(reservation);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LISTING_SIZE)
+    public void mapListing(Blackhole blackhole) {
+        for (Reservation item : reservations) {
+            blackhole.consume(Mapper.ReservationToReservationDto(item));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.zenika.meetingplanner.benchmark;
+
+import com.zenika.meetingplanner.MeetingplannerApplication;
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.service.BookingService;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking latency and restart time of the in-memory database against the durable, file-backed one.
+ * Every booking takes a new slot: seven two-hour slots a business day in each of the twelve rooms.
+ */
+public class PersistenceModeBenchmark {
+
+    private static final int ROOMS = 12;
+    private static final int SLOTS_PER_DAY = 7;
+
+    @State(Scope.Benchmark)
+    public static class Running {
+
+        @Param({"memory", "durable"})
+        private String mode;
+
+        private Path dataDir;
+        private ConfigurableApplicationContext context;
+        private BookingService bookingService;
+        private int booked;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            dataDir = Files.createTempDirectory("meetingplanner-bench");
+            context = start(mode, dataDir);
+            bookingService = context.getBean(BookingService.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            context.close();
+            FileSystemUtils.deleteRecursively(dataDir);
+        }
+
+        Reservation nextMeeting() {
+            int meeting = booked++;
+            int slot = meeting % (ROOMS * SLOTS_PER_DAY);
+            LocalTime startTime = LocalTime.of(8 + 2 * (slot / ROOMS), 0);
+            return Reservation.builder()
+                    .date(SyntheticData.businessDay(meeting / (ROOMS * SLOTS_PER_DAY)))
+                    .startTime(startTime)
+                    .endTime(startTime.plusHours(1))
+                    .type("RS")
+                    .attendees(2)
+                    .reservedBy("benchmark")
+                    .build();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Stopped {
+
+        @Param({"memory", "durable"})
+        private String mode;
+
+        private Path dataDir;
+
+        /**
+         * Create the database once, so that the measured starts of the durable mode are restarts
+         */
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            dataDir = Files.createTempDirectory("meetingplanner-bench");
+            start(mode, dataDir).close();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            FileSystemUtils.deleteRecursively(dataDir);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Fork(1)
+    public Reservation book(Running running) {
+        return running.bookingService.book(running.nextMeeting());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 10)
+    @Fork(1)
+    public void restart(Stopped stopped) {
+        start(stopped.mode, stopped.dataDir).close();
+    }
+
+    private static ConfigurableApplicationContext start(String mode, Path dataDir) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.main.web-application-type=none",
+                "--spring.main.banner-mode=off",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"));
+        if (mode.equals("durable")) {
+            args.add("--spring.profiles.active=durable");
+            args.add("--meetingplanner.data-dir=" + dataDir);
+        }
+        return SpringApplication.run(MeetingplannerApplication.class, args.toArray(String[]::new));
+    }
+}
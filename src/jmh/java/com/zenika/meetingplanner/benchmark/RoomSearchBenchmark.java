@@ -0,0 +1,117 @@
+package com.zenika.meetingplanner.benchmark;
+
+import com.zenika.meetingplanner.MeetingplannerApplication;
+import com.zenika.meetingplanner.model.Equipment;
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.model.Room;
+import com.zenika.meetingplanner.service.ReservationService;
+import com.zenika.meetingplanner.service.RoomService;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Room search over the cached catalog and the occupancy index, the application being started on an
+ * in-memory H2 loaded with the synthetic catalog and history. The database is only read to fill the
+ * catalog cache on the first search and to rebuild the index at setup, not per search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoomSearchBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"12", "1000", "100000"})
+    private int rooms;
+
+    @Param({"10000", "1000000"})
+    private int reservations;
+
+    private ConfigurableApplicationContext context;
+    private RoomService roomService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MeetingplannerApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        roomService = context.getBean(RoomService.class);
+        load(context.getBean(JdbcTemplate.class));
+        context.getBean(ReservationService.class).rebuildOccupancyIndex();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Room> getAvailableRooms() {
+        return roomService.getAvailableRooms(6, "SPEC", SyntheticData.FIRST_DAY, LocalTime.of(11, 0));
+    }
+
+    @Benchmark
+    public Room getBestFittingRoom() {
+        return roomService.getBestFittingRoom(4, "VC", SyntheticData.FIRST_DAY, LocalTime.of(9, 0));
+    }
+
+    /**
+     * Insert the synthetic rooms and reservations with JDBC batches
+     * @param jdbcTemplate The JDBC template
+     */
+    private void load(JdbcTemplate jdbcTemplate) {
+        Map<String, Long> equipmentIds = new HashMap<>();
+        jdbcTemplate.query("select id, name from equipments",
+                (resultSet) -> { equipmentIds.put(resultSet.getString("name"), resultSet.getLong("id")); });
+
+        List<Room> catalog = SyntheticData.rooms(rooms, SyntheticData.equipments());
+        jdbcTemplate.batchUpdate("insert into rooms (name, max_capacity) values (?, ?)", catalog, BATCH_SIZE,
+                (statement, room) -> {
+                    statement.setString(1, room.getName());
+                    statement.setInt(2, room.getMaxCapacity());
+                });
+
+        List<Object[]> mappings = new ArrayList<>();
+        for (Room room : catalog) {
+            for (Equipment equipment : room.getEquipments()) {
+                mappings.add(new Object[]{room.getName(), equipmentIds.get(equipment.getName())});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into room_equipments_mapping (room_name, equipment_id) values (?, ?)", mappings);
+
+        List<Reservation> history = SyntheticData.reservations(catalog, reservations);
+        long[] id = {1_000_000_000L};
+        jdbcTemplate.batchUpdate("insert into reservations (id, reservation_number, date, start_time, end_time, type, "
+                        + "attendees, reserved_by, room_name) values (?, ?, ?, ?, ?, ?, ?, ?, ?)", history, BATCH_SIZE,
+                (statement, reservation) -> {
+                    statement.setLong(1, id[0]++);
+                    statement.setInt(2, reservation.getReservationNumber());
+                    statement.setDate(3, Date.valueOf(reservation.getDate()));
+                    statement.setTime(4, Time.valueOf(reservation.getStartTime()));
+                    statement.setTime(5, Time.valueOf(reservation.getEndTime()));
+                    statement.setString(6, reservation.getType());
+                    statement.setInt(7, reservation.getAttendees());
+                    statement.setString(8, reservation.getReservedBy());
+                    statement.setString(9, reservation.getRoom().getName());
+                });
+    }
+}
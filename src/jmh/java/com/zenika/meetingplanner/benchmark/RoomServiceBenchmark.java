@@ -0,0 +1,98 @@
+package com.zenika.meetingplanner.benchmark;
+
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.model.Room;
+import com.zenika.meetingplanner.repository.RoomRepository;
+import com.zenika.meetingplanner.service.MeetingPlanner;
+import com.zenika.meetingplanner.service.RoomOccupancyIndex;
+import com.zenika.meetingplanner.service.RoomService;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory hot paths of the room search: capacity-sorted catalog scan, availability, equipment
+ * and capacity checks, batch planning
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoomServiceBenchmark {
+
+    @Param({"12", "1000", "100000"})
+    private int rooms;
+
+    @Param({"10000", "1000000"})
+    private int reservations;
+
+    private RoomService roomService;
+    private MeetingPlanner meetingPlanner;
+    private List<Room> catalog;
+    private List<Reservation> meetings;
+    private List<String> requiredEquipments;
+    private Room room;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = SyntheticData.rooms(rooms, SyntheticData.equipments());
+        RoomOccupancyIndex occupancyIndex = new RoomOccupancyIndex();
+        roomService = new RoomService(catalogRepository(catalog), occupancyIndex);
+        meetingPlanner = new MeetingPlanner(roomService, occupancyIndex);
+        occupancyIndex.rebuild(SyntheticData.reservations(catalog, reservations));
+        meetings = SyntheticData.meetings(20, SyntheticData.FIRST_DAY);
+        requiredEquipments = roomService.getRequiredEquipment("VC");
+        room = catalog.get(0);
+    }
+
+    @Benchmark
+    public Room getBestFittingRoom() {
+        return roomService.getBestFittingRoom(7, "VC", SyntheticData.FIRST_DAY, LocalTime.of(11, 0));
+    }
+
+    @Benchmark
+    public List<Room> getAvailableRooms() {
+        return roomService.getAvailableRooms(7, "VC", SyntheticData.FIRST_DAY, LocalTime.of(11, 0));
+    }
+
+    @Benchmark
+    public boolean isRoomAvailable() {
+        return roomService.isRoomAvailable(room, SyntheticData.FIRST_DAY, LocalTime.of(11, 0));
+    }
+
+    @Benchmark
+    public boolean hasRequiredEquipment() {
+        return roomService.hasRequiredEquipment(room.getEquipments(), requiredEquipments);
+    }
+
+    @Benchmark
+    public boolean checkRoomCapacity() {
+        return roomService.checkRoomCapacity(room.getMaxCapacity(), 7);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public MeetingPlanner.Plan planMeetings() {
+        return meetingPlanner.plan(meetings, catalog, MeetingPlanner.Mode.MAXIMIZE);
+    }
+
+    /**
+     * Repository serving the synthetic catalog, the only query the room search runs
+     * @param catalog The rooms
+     * @return The repository
+     */
+    private static RoomRepository catalogRepository(List<Room> catalog) {
+        return (RoomRepository) Proxy.newProxyInstance(RoomRepository.class.getClassLoader(),
+                new Class<?>[]{RoomRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findAll") && method.getParameterCount() == 0)
+                        return catalog;
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,128 @@
+package com.zenika.meetingplanner.benchmark;
+
+import com.zenika.meetingplanner.model.Equipment;
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.model.Room;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic generators of rooms and reservations for the benchmarks.
+ * Reservations never overlap: each room hosts up to six meetings a business day, every two hours from 08:00.
+ */
+public final class SyntheticData {
+
+    public static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 7);
+    public static final int MEETINGS_PER_DAY = 6;
+    public static final String[] TYPES = {"VC", "SPEC", "RC", "RS"};
+
+    private static final String[] EQUIPMENT_NAMES = {"ecran", "webcam", "tableau", "pieuvre"};
+    private static final String[][] EQUIPMENT_SETS = {
+            {}, {"ecran"}, {"tableau"}, {"pieuvre"}, {"ecran", "webcam"},
+            {"ecran", "pieuvre", "webcam"}, {"ecran", "pieuvre"}, {"tableau", "ecran", "pieuvre"}
+    };
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Get the four equipments of the catalog
+     * @return List of Equipment, with their ids
+     */
+    public static List<Equipment> equipments() {
+        List<Equipment> equipments = new ArrayList<>();
+        for (int i = 0; i < EQUIPMENT_NAMES.length; i++) {
+            equipments.add(Equipment.builder().id(i + 1L).name(EQUIPMENT_NAMES[i]).build());
+        }
+        return equipments;
+    }
+
+    /**
+     * Generate rooms with random capacities and equipments
+     * @param count The number of rooms
+     * @param equipments The equipments of the catalog
+     * @return List of Room named B000000, B000001...
+     */
+    public static List<Room> rooms(int count, List<Equipment> equipments) {
+        Random random = new Random(42);
+        List<Room> rooms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Set<Equipment> roomEquipments = new HashSet<>();
+            for (String name : EQUIPMENT_SETS[random.nextInt(EQUIPMENT_SETS.length)]) {
+                roomEquipments.add(equipments.stream().filter(e -> e.getName().equals(name)).findFirst().orElseThrow());
+            }
+            rooms.add(Room.builder()
+                    .name(String.format("B%06d", i))
+                    .maxCapacity(4 + random.nextInt(40))
+                    .equipments(roomEquipments)
+                    .reservations(new ArrayList<>())
+                    .build());
+        }
+        return rooms;
+    }
+
+    /**
+     * Generate reservations spread over the rooms, filling business days from {@link #FIRST_DAY}
+     * @param rooms The rooms
+     * @param count The number of reservations
+     * @return List of Reservation, without id
+     */
+    public static List<Reservation> reservations(List<Room> rooms, int count) {
+        Random random = new Random(7);
+        List<Reservation> reservations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Room room = rooms.get(i % rooms.size());
+            int rank = i / rooms.size();
+            LocalTime startTime = LocalTime.of(8 + 2 * (rank % MEETINGS_PER_DAY), 0);
+            reservations.add(Reservation.builder()
+                    .reservationNumber(i)
+                    .date(businessDay(rank / MEETINGS_PER_DAY))
+                    .startTime(startTime)
+                    .endTime(startTime.plusHours(1))
+                    .type(TYPES[random.nextInt(TYPES.length)])
+                    .attendees(1 + random.nextInt(Math.max(1, (int) (room.getMaxCapacity() * 0.7))))
+                    .reservedBy("user" + random.nextInt(1000))
+                    .room(room)
+                    .build());
+        }
+        return reservations;
+    }
+
+    /**
+     * Generate one-hour meetings without room, like the content of meetings.json
+     * @param count The number of meetings
+     * @param date The date of the meetings
+     * @return List of Reservation, without room
+     */
+    public static List<Reservation> meetings(int count, LocalDate date) {
+        Random random = new Random(11);
+        List<Reservation> meetings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalTime startTime = LocalTime.of(8 + random.nextInt(12), 0);
+            meetings.add(Reservation.builder()
+                    .reservationNumber(i + 1)
+                    .date(date)
+                    .startTime(startTime)
+                    .endTime(startTime.plusHours(1))
+                    .type(TYPES[random.nextInt(TYPES.length)])
+                    .attendees(1 + random.nextInt(12))
+                    .build());
+        }
+        return meetings;
+    }
+
+    /**
+     * Get the n-th business day from {@link #FIRST_DAY}
+     * @param index The index of the business day
+     * @return The date
+     */
+    public static LocalDate businessDay(int index) {
+        return FIRST_DAY.plusWeeks(index / 5).plusDays(index % 5);
+    }
+}
@@ -0,0 +1,53 @@
+package com.zenika.meetingplanner.config;
+
+import com.zenika.meetingplanner.helper.Bulkhead;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Database bulkhead of the virtual thread mode: virtual threads are cheap, so a burst of requests
+ * would otherwise all queue on the connection pool and fail together on its timeout.
+ */
+@Configuration
+@ConditionalOnProperty("meetingplanner.bulkhead.enabled")
+public class BulkheadConfiguration {
+
+    /**
+     * Create the bulkhead, one permit per pooled connection
+     * @param maximumPoolSize The size of the connection pool
+     * @param registry The meter registry
+     * @return Bulkhead
+     */
+    @Bean
+    Bulkhead databaseBulkhead(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize,
+            MeterRegistry registry) {
+        Bulkhead bulkhead = new Bulkhead(maximumPoolSize);
+        Gauge.builder("bulkhead.available.permits", bulkhead, Bulkhead::getAvailablePermits)
+                .description("Requests that can still reach the database")
+                .register(registry);
+        return bulkhead;
+    }
+
+    /**
+     * Register the bulkhead in front of the API
+     * @param bulkhead The bulkhead
+     * @param timeout The longest time a request waits for a permit before being rejected with a 503
+     * @return FilterRegistrationBean
+     */
+    @Bean
+    FilterRegistrationBean<BulkheadFilter> bulkheadFilter(Bulkhead bulkhead,
+            @Value("${meetingplanner.bulkhead.timeout:5s}") Duration timeout) {
+        FilterRegistrationBean<BulkheadFilter> registration = new FilterRegistrationBean<>(new BulkheadFilter(bulkhead, timeout));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
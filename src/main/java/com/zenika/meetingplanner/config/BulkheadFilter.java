@@ -0,0 +1,118 @@
+package com.zenika.meetingplanner.config;
+
+import com.zenika.meetingplanner.helper.Bulkhead;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Let at most as many API requests run as the database has connections.
+ * The permit of an asynchronous request is held until the response is complete.
+ * The streaming endpoints are left out: their response lasts as long as the client takes to read it,
+ * so a permit would be held by the client rather than by the database. They are the reservation event stream,
+ * the NDJSON listings of v1 ({@code stream=true}) and v3, and the meeting import.
+ */
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private static final String EVENT_STREAM_PATH = "/api/v1/reservations/events";
+    private static final String V1_LISTING_PATH = "/api/v1/reservations";
+    private static final String IMPORT_PATH = "/api/v2/reservations/import";
+    private static final String V3_LISTING_PATH = "/api/v3/reservations";
+
+    private final Bulkhead bulkhead;
+    private final Duration timeout;
+
+    public BulkheadFilter(Bulkhead bulkhead, Duration timeout) {
+        this.bulkhead = bulkhead;
+        this.timeout = timeout;
+    }
+
+    /**
+     * The streaming endpoints do not take a permit
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        boolean get = HttpMethod.GET.matches(request.getMethod());
+        return path.equals(EVENT_STREAM_PATH)
+                || path.equals(IMPORT_PATH)
+                || get && path.equals(V1_LISTING_PATH) && "true".equals(request.getParameter("stream"))
+                || get && path.equals(V3_LISTING_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write("Service surchargé, veuillez réessayer");
+            return;
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted())
+                request.getAsyncContext().addListener(new ReleaseListener(released));
+            else
+                release(released);
+        }
+    }
+
+    private void release(AtomicBoolean released) {
+        if (released.compareAndSet(false, true))
+            bulkhead.release();
+    }
+
+    private class ReleaseListener implements AsyncListener {
+
+        private final AtomicBoolean released;
+
+        private ReleaseListener(AtomicBoolean released) {
+            this.released = released;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(released);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release(released);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release(released);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.zenika.meetingplanner.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Placeholders of the migrations taken from the application configuration
+ */
+@Configuration
+public class FlywayConfiguration {
+
+    /**
+     * Name of the placeholder holding the cleanup gap between two reservations of a room, in minutes
+     */
+    public static final String CLEANUP_GAP_PLACEHOLDER = "cleanup_gap_minutes";
+
+    /**
+     * Expose the cleanup buffers to the migrations backfilling the slot claims
+     * @param bufferBefore The cleanup buffer before a meeting
+     * @param bufferAfter The cleanup buffer after a meeting
+     * @return FlywayConfigurationCustomizer
+     */
+    @Bean
+    FlywayConfigurationCustomizer cleanupGapPlaceholder(@Value("${meetingplanner.buffer.before:0m}") Duration bufferBefore,
+            @Value("${meetingplanner.buffer.after:1h}") Duration bufferAfter) {
+        return configuration -> {
+            Map<String, String> placeholders = new HashMap<>(configuration.getPlaceholders());
+            placeholders.put(CLEANUP_GAP_PLACEHOLDER, String.valueOf(bufferBefore.plus(bufferAfter).toMinutes()));
+            configuration.placeholders(placeholders);
+        };
+    }
+}
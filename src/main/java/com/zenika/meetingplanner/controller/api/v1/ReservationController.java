@@ -1,94 +1,189 @@
 package com.zenika.meetingplanner.controller.api.v1;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zenika.meetingplanner.dto.NoRoomAvailableDto;
+import com.zenika.meetingplanner.dto.PlanningResultDto;
 import com.zenika.meetingplanner.dto.ReservationDto;
+import com.zenika.meetingplanner.dto.SuggestionDto;
 import com.zenika.meetingplanner.helper.Mapper;
+import com.zenika.meetingplanner.helper.ReservationCursor;
+import com.zenika.meetingplanner.model.IdempotencyRecord;
 import com.zenika.meetingplanner.model.Reservation;
-import com.zenika.meetingplanner.model.Room;
+import com.zenika.meetingplanner.model.ReservationListing;
+import com.zenika.meetingplanner.request.ListReservationsRequest;
 import com.zenika.meetingplanner.request.StoreReservationRequest;
+import com.zenika.meetingplanner.service.BookingMetrics;
+import com.zenika.meetingplanner.service.BookingService;
+import com.zenika.meetingplanner.service.IdempotencyService;
+import com.zenika.meetingplanner.service.MeetingPlanner;
+import com.zenika.meetingplanner.service.ReservationEventDispatcher;
 import com.zenika.meetingplanner.service.ReservationService;
-import com.zenika.meetingplanner.service.RoomService;
+import com.zenika.meetingplanner.service.ReservationValidator;
+import com.zenika.meetingplanner.service.ReservationValidator.Rejection;
+import com.zenika.meetingplanner.service.SlotSuggestionService;
 
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.LocalDate;
-import java.time.LocalTime;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @Component("v1ReservationController")
 @RequestMapping("/api/v1/reservations")
 public class ReservationController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final ReservationService reservationService;
-    private final RoomService roomService;
+    private final BookingService bookingService;
+    private final ReservationValidator reservationValidator;
+    private final BookingMetrics bookingMetrics;
+    private final SlotSuggestionService slotSuggestionService;
+    private final IdempotencyService idempotencyService;
+    private final ReservationEventDispatcher reservationEventDispatcher;
+    private final ObjectMapper objectMapper;
 
-    public ReservationController(ReservationService reservationService, RoomService roomService) {
+    public ReservationController(ReservationService reservationService, BookingService bookingService,
+            ReservationValidator reservationValidator, BookingMetrics bookingMetrics,
+            SlotSuggestionService slotSuggestionService, IdempotencyService idempotencyService,
+            ReservationEventDispatcher reservationEventDispatcher, ObjectMapper objectMapper) {
         this.reservationService = reservationService;
-        this.roomService = roomService;
+        this.bookingService = bookingService;
+        this.reservationValidator = reservationValidator;
+        this.bookingMetrics = bookingMetrics;
+        this.slotSuggestionService = slotSuggestionService;
+        this.idempotencyService = idempotencyService;
+        this.reservationEventDispatcher = reservationEventDispatcher;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Get all reservations
+     * Get a page of reservations ordered by date, start time and id.
+     * When more reservations match, the cursor of the next page is sent in the X-Next-Cursor header.
+     * @param request The optional filters (from, to, room, reservedBy), cursor and limit
      * @return List of ReservationDto if the reservations are found, error message otherwise
      */
     @GetMapping
-    public ResponseEntity<?> index() {
+    public ResponseEntity<?> index(ListReservationsRequest request) {
         try {
-            List<Reservation> reservations = reservationService.findAll();
-            List<ReservationDto> reservationDtos = reservations.stream().map(Mapper::ReservationToReservationDto)
+            int limit = request.getLimit() != null ? request.getLimit() : DEFAULT_PAGE_SIZE;
+            if (limit < 1 || limit > MAX_PAGE_SIZE)
+                return ResponseEntity.badRequest().body("La taille de page doit être comprise entre 1 et " + MAX_PAGE_SIZE);
+
+            Slice<ReservationListing> reservations = reservationService.findPage(request, limit);
+            List<ReservationDto> reservationDtos = reservations.stream().map(Mapper::ReservationListingToReservationDto)
                     .toList();
-            return ResponseEntity.ok(reservationDtos);
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (reservations.hasNext()) {
+                ReservationListing last = reservations.getContent().get(reservations.getNumberOfElements() - 1);
+                response.header(NEXT_CURSOR_HEADER, ReservationCursor.of(last).encode());
+            }
+            return response.body(reservationDtos);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    /**
+     * Stream every reservation matching the filters as NDJSON, one ReservationDto per line,
+     * written as the rows are read from the database
+     * @param request The optional filters (from, to, room, reservedBy)
+     * @return The NDJSON stream
+     */
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> stream(ListReservationsRequest request) {
+        StreamingResponseBody body = outputStream -> reservationService.streamAll(request, reservation -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(Mapper.ReservationListingToReservationDto(reservation)));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Subscribe to the reservation changes as server-sent events, named after the change (created)
+     * and carrying the ReservationDto. The id of each event is its offset: a client reconnecting with
+     * the Last-Event-ID header, or the after parameter, first receives the events it missed.
+     * @param lastEventId The offset of the last event received, sent back by EventSource clients
+     * @param after The offset of the last event received, for clients that cannot set the header
+     * @return The event stream, live events only if no offset is given
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) Long lastEventId,
+            @RequestParam(required = false) Long after) throws IOException {
+        return reservationEventDispatcher.subscribe(lastEventId != null ? lastEventId : after);
+    }
+
+    /**
+     * Get the free slots nearest to a meeting: other hours of the same day, then the following business days
+     * @param request The meeting (attendees, type, date, startTime and optionally endTime), as query parameters
+     * @param limit The maximum number of slots
+     * @return List of SuggestionDto, the nearest first, error message otherwise
+     */
+    @GetMapping("/suggestions")
+    public ResponseEntity<?> suggestions(StoreReservationRequest request, @RequestParam(defaultValue = "5") int limit) {
+        if (limit < 1 || limit > SlotSuggestionService.MAX_SUGGESTIONS)
+            return ResponseEntity.badRequest()
+                    .body("Le nombre de suggestions doit être compris entre 1 et " + SlotSuggestionService.MAX_SUGGESTIONS);
+        Rejection rejection = reservationValidator.validate(request);
+        if (rejection != null)
+            return ResponseEntity.badRequest().body(rejection.getMessage());
+        return ResponseEntity.ok(suggest(request, limit));
+    }
+
     /**
      * Store a new reservation
      * @param request The request containing the reservation data
+     * @param suggestions The number of nearest free slots sent back when no room is available, none by default
      * @return ReservationDto if the reservation is stored successfully, error message otherwise
      */
     @PostMapping
-    public ResponseEntity<?> store(@RequestBody StoreReservationRequest request) {
+    public ResponseEntity<?> store(@RequestBody StoreReservationRequest request,
+            @RequestParam(defaultValue = "0") int suggestions) {
         try {
-            if (request == null)
-                return ResponseEntity.badRequest().body("Requête invalide");
-
-            if (!List.of("VC", "SPEC", "RC", "RS").contains(request.getType().toUpperCase()))
-                return ResponseEntity.badRequest().body("Type de réunion invalide");
-
-            if (!isDateAndTimeAfterNow(request.getDate(), request.getStartTime()))
-                return ResponseEntity.badRequest()
-                        .body("La date et l'heure de début doivent être ultérieures à la date et l'heure actuelles");
-
-            if (isWeekend(request.getDate()))
-                return ResponseEntity.badRequest().body("Impossible de réserver le week-end");
-
-            if (!isTimeInFullHourStyle(request.getStartTime()))
-                return ResponseEntity.badRequest().body("L'heure de début doit être au format d'heure pleine");
+            Rejection rejection = bookingMetrics.time(BookingMetrics.STORE, "validation",
+                    () -> reservationValidator.validate(request));
+            if (rejection != null) {
+                bookingMetrics.reject(rejection.name());
+                return ResponseEntity.badRequest().body(rejection.getMessage());
+            }
 
-            if (!isTimeBetween(8, 20, request.getStartTime()))
-                return ResponseEntity.badRequest().body("Les réservations ne sont autorisées qu'entre 8h00 et 20h00");
+            Reservation savedReservation = bookingService.book(Mapper.StoreReservationRequestToReservation(request));
+            if (savedReservation == null) {
+                bookingMetrics.reject(Rejection.NO_ROOM_AVAILABLE.name());
+                if (suggestions <= 0)
+                    return ResponseEntity.status(404).body(Rejection.NO_ROOM_AVAILABLE.getMessage());
+                List<SuggestionDto> suggestionDtos = bookingMetrics.time(BookingMetrics.STORE, "suggestions",
+                        () -> suggest(request, Math.min(suggestions, SlotSuggestionService.MAX_SUGGESTIONS)));
+                return ResponseEntity.status(404).body(NoRoomAvailableDto.builder()
+                        .message(Rejection.NO_ROOM_AVAILABLE.getMessage())
+                        .suggestions(suggestionDtos)
+                        .build());
+            }
 
-            Room bestFittingRoom = roomService.getBestFittingRoom(request.getAttendees(), request.getType(),
-                    request.getDate(), request.getStartTime());
-            if (bestFittingRoom == null)
-                return ResponseEntity.status(404).body("Aucune salle disponible pour cette réservation");
-
-            Reservation reservation = Reservation.builder()
-                    .date(request.getDate())
-                    .startTime(request.getStartTime())
-                    .endTime(request.getStartTime().plusHours(1))
-                    .type(request.getType())
-                    .attendees(request.getAttendees())
-                    .reservedBy(request.getReservedBy())
-                    .room(bestFittingRoom)
-                    .build();
-
-            Reservation savedReservation = reservationService.save(reservation);
-            ReservationDto savedReservationDto = Mapper.ReservationToReservationDto(savedReservation);
+            ReservationDto savedReservationDto = bookingMetrics.time(BookingMetrics.STORE, "mapping",
+                    () -> Mapper.ReservationToReservationDto(savedReservation));
 
             return ResponseEntity.status(201).body(savedReservationDto);
         } catch (Exception e) {
@@ -98,47 +193,103 @@ public class ReservationController {
     }
 
     /**
-     * Check if the given date is a weekend
-     * @param date The date to check
-     * @return true if the given date is a weekend, false otherwise
+     * Store many reservations at once: the requests are validated in parallel, the rooms are assigned
+     * together against the occupancy of the moment and the reservations are saved in one batched transaction.
+     * A retry sent with the same Idempotency-Key header gets the original result back.
+     * @param requests The reservations, numbered in the given order
+     * @param mode greedy to place the meetings in the given order, maximize to place as many meetings as possible
+     * @param idempotencyKey The optional idempotency key of the batch
+     * @return PlanningResultDto with the stored reservations and the meetings that could not be placed,
+     * 400 for an invalid batch, 409 when the batch conflicts with concurrent bookings or with a retry
+     * @throws JsonProcessingException if the batch cannot be hashed
      */
-    private boolean isWeekend(LocalDate date) {
-        if (date == null)
-            return false;
-        return date.getDayOfWeek().getValue() >= 6;
+    @PostMapping("/bulk")
+    public ResponseEntity<?> bulk(@RequestBody List<StoreReservationRequest> requests,
+            @RequestParam(defaultValue = "greedy") String mode,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey)
+            throws JsonProcessingException {
+        MeetingPlanner.Mode planningMode = MeetingPlanner.Mode.parse(mode);
+        if (planningMode == null)
+            return ResponseEntity.badRequest().body("Mode de planification invalide");
+        if (requests == null || requests.isEmpty() || requests.size() > BookingService.MAX_BULK_SIZE)
+            return ResponseEntity.badRequest().body("Le lot doit contenir entre 1 et " + BookingService.MAX_BULK_SIZE + " réservations");
+
+        List<Rejection> rejections = bookingMetrics.time(BookingMetrics.BATCH, "validation",
+                () -> reservationValidator.validateAll(requests));
+        for (int i = 0; i < rejections.size(); i++) {
+            if (rejections.get(i) != null) {
+                bookingMetrics.reject(rejections.get(i).name());
+                return ResponseEntity.badRequest().body("Réunion " + (i + 1) + " : " + rejections.get(i).getMessage());
+            }
+        }
+
+        try {
+            if (idempotencyKey == null)
+                return ResponseEntity.ok(toPlanningResultDto(bookingService.bookAll(toMeetings(requests), planningMode)));
+
+            String requestHash = IdempotencyService.hash(planningMode + objectMapper.writeValueAsString(requests));
+            String token = UUID.randomUUID().toString();
+            IdempotencyRecord existing = idempotencyService.claim(idempotencyKey, requestHash, token);
+            if (existing != null)
+                return replay(existing, requestHash);
+
+            MeetingPlanner.Plan plan;
+            try {
+                // the result is stored with the reservations, a failure leaves neither of them
+                plan = bookingService.bookAll(toMeetings(requests), planningMode, booked ->
+                        idempotencyService.complete(idempotencyKey, token, 200, toJson(toPlanningResultDto(booked))));
+            } catch (RuntimeException e) {
+                idempotencyService.release(idempotencyKey, token);
+                throw e;
+            }
+            return ResponseEntity.ok(toPlanningResultDto(plan));
+        } catch (ConcurrencyFailureException e) {
+            return ResponseEntity.status(409).body("Requête en cours de traitement");
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(409).body("Les salles ont été réservées entre-temps, veuillez réessayer");
+        }
     }
 
-    /**
-     * Check if the given time is between the given start and end
-     * @param start The start time
-     * @param end The end time
-     * @param target The time to check
-     * @return true if the given time is between the given start and end, false otherwise
-     */
-    private boolean isTimeBetween(int start, int end, LocalTime target) {
-        if (target == null)
-            return false;
-        return target.getHour() >= start && target.getHour() <= end;
+    private static List<Reservation> toMeetings(List<StoreReservationRequest> requests) {
+        List<Reservation> meetings = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            Reservation meeting = Mapper.StoreReservationRequestToReservation(requests.get(i));
+            meeting.setReservationNumber(i + 1);
+            meetings.add(meeting);
+        }
+        return meetings;
     }
 
-    /**
-     * Check if the given time is in full hour style
-     * @param time The time to check
-     * @return true if the given time is in full hour style, false otherwise
-     */
-    private boolean isTimeInFullHourStyle(LocalTime time) {
-        return time.getMinute() == 0;
+    private PlanningResultDto toPlanningResultDto(MeetingPlanner.Plan plan) {
+        return bookingMetrics.time(BookingMetrics.BATCH, "mapping", () -> Mapper.PlanToPlanningResultDto(plan));
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
-     *  Check if the given date and time are after the current date and time
-     * 
-     *  @param date The date to check
-     *  @param time The time to check
-     *  @return true if the given date and time are after the current date and time, false otherwise
+     * Answer a request whose idempotency key has already been used
+     * @param record The record of the key
+     * @param requestHash The hash of the request
+     * @return The original result, or an error if the key belongs to another request or is still being processed
      */
-    private boolean isDateAndTimeAfterNow(LocalDate date, LocalTime time) {
-        return date.isAfter(LocalDate.now()) || (date.isEqual(LocalDate.now()) && time.isAfter(LocalTime.now()));
+    private ResponseEntity<?> replay(IdempotencyRecord record, String requestHash) {
+        if (!record.getRequestHash().equals(requestHash))
+            return ResponseEntity.unprocessableEntity().body("Clé d'idempotence déjà utilisée pour une autre requête");
+        if (record.getStatus() == null)
+            return ResponseEntity.status(409).body("Requête en cours de traitement");
+        return ResponseEntity.status(record.getStatus()).header(IDEMPOTENT_REPLAYED_HEADER, "true")
+                .contentType(MediaType.APPLICATION_JSON).body(record.getResponseBody());
     }
 
+    private List<SuggestionDto> suggest(StoreReservationRequest request, int limit) {
+        return slotSuggestionService.suggest(request.getAttendees(), request.getType(), request.getDate(),
+                        request.getStartTime(), request.getEndTime(), limit)
+                .stream().map(Mapper::SuggestionToSuggestionDto).toList();
+    }
 }
@@ -0,0 +1,52 @@
+package com.zenika.meetingplanner.controller.api.v1;
+
+import com.zenika.meetingplanner.helper.Mapper;
+import com.zenika.meetingplanner.service.CalendarService;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+@RestController
+@Component("v1RoomController")
+@RequestMapping("/api/v1/rooms")
+public class RoomController {
+
+    private final CalendarService calendarService;
+
+    public RoomController(CalendarService calendarService) {
+        this.calendarService = calendarService;
+    }
+
+    /**
+     * Get the free/busy grid of every room over a date range, one slot per bookable hour, buffers included.
+     * The response carries an ETag and a Last-Modified header, a conditional request on an unchanged
+     * range is answered with 304 without computing the grid.
+     * @param from The first date
+     * @param to The last date, seven days from the first one by default
+     * @param webRequest The request, for the conditional headers
+     * @return CalendarDto, error message otherwise
+     */
+    @GetMapping("/calendar")
+    public ResponseEntity<?> calendar(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest webRequest) {
+        LocalDate last = to != null ? to : from.plusDays(6);
+        if (last.isBefore(from) || ChronoUnit.DAYS.between(from, last) >= CalendarService.MAX_DAYS)
+            return ResponseEntity.badRequest()
+                    .body("La période doit compter entre 1 et " + CalendarService.MAX_DAYS + " jours");
+
+        CalendarService.Version version = calendarService.getVersion(from, last);
+        if (webRequest.checkNotModified(version.etag(), version.lastModified()))
+            return null;
+        return ResponseEntity.ok(Mapper.CalendarToCalendarDto(calendarService.getCalendar(from, last)));
+    }
+}
@@ -1,24 +1,38 @@
 package com.zenika.meetingplanner.controller.api.v2;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.zenika.meetingplanner.dto.ReservationDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.zenika.meetingplanner.helper.JsonReader;
 import com.zenika.meetingplanner.helper.Mapper;
 import com.zenika.meetingplanner.model.Reservation;
-import com.zenika.meetingplanner.model.Room;
-import com.zenika.meetingplanner.service.ReservationService;
-import com.zenika.meetingplanner.service.RoomService;
+import com.zenika.meetingplanner.service.BookingMetrics;
+import com.zenika.meetingplanner.service.BookingService;
+import com.zenika.meetingplanner.service.MeetingImportService;
+import com.zenika.meetingplanner.service.MeetingPlanner;
 import java.time.LocalDate;
 import java.time.temporal.TemporalAdjusters;
 import java.time.DayOfWeek;
@@ -28,36 +42,40 @@ import java.time.DayOfWeek;
 @RequestMapping("/api/v2/reservations")
 public class ReservationController {
 
-    private final ReservationService reservationService;
-    private final RoomService roomService;
+    private final BookingService bookingService;
+    private final BookingMetrics bookingMetrics;
+    private final MeetingImportService meetingImportService;
+    private final ObjectMapper objectMapper;
 
-    public ReservationController(ReservationService reservationService, RoomService roomService) {
-        this.reservationService = reservationService;
-        this.roomService = roomService;
+    public ReservationController(BookingService bookingService, BookingMetrics bookingMetrics,
+            MeetingImportService meetingImportService, ObjectMapper objectMapper) {
+        this.bookingService = bookingService;
+        this.bookingMetrics = bookingMetrics;
+        this.meetingImportService = meetingImportService;
+        this.objectMapper = objectMapper;
     }
 
 
     /**
-     * get the most suitable room for each provided monday meeting
+     * get the most suitable room for each provided monday meeting, all meetings being planned at once
      * 
-     * @return List<ReservationDto> if the reservations are stored successfully, error message otherwise
+     * @param mode greedy to place the meetings in file order, maximize to place as many meetings as possible
+     * @return PlanningResultDto with the stored reservations and the meetings that could not be placed, error message otherwise
      */
     @GetMapping()
-    public ResponseEntity<?> mondayMeetings() {
+    public ResponseEntity<?> mondayMeetings(@RequestParam(defaultValue = "greedy") String mode) {
         try {
-            List<ReservationDto> successfulReservations = new ArrayList<>();
+            MeetingPlanner.Mode planningMode = MeetingPlanner.Mode.parse(mode);
+            if (planningMode == null)
+                return ResponseEntity.badRequest().body("Mode de planification invalide");
+
+            Timer.Sample loading = bookingMetrics.start();
             List<Reservation> reservations = loadMondayReservations();
-            for (Reservation reservation : reservations) {
-                Room bestFittingRoom = roomService.getBestFittingRoom(reservation.getAttendees(), reservation.getType(),
-                        reservation.getDate(), reservation.getStartTime());
-                if (bestFittingRoom != null) {
-                    reservation.setRoom(bestFittingRoom);
-                    Reservation savedReservation = reservationService.save(reservation);
-                    bestFittingRoom.getReservations().add(savedReservation);
-                    successfulReservations.add(Mapper.ReservationToReservationDto(savedReservation));
-                }
-            }
-            return ResponseEntity.ok(successfulReservations);
+            bookingMetrics.stop(loading, BookingMetrics.BATCH, "loading");
+
+            MeetingPlanner.Plan plan = bookingService.bookAll(reservations, planningMode);
+            return ResponseEntity.ok(bookingMetrics.time(BookingMetrics.BATCH, "mapping",
+                    () -> Mapper.PlanToPlanningResultDto(plan)));
 
         } catch (IOException e) {
             return ResponseEntity.badRequest().body("Erreur lors de la lecture du fichier JSON");
@@ -69,17 +87,80 @@ public class ReservationController {
 
 
     /**
-     * Load the monday meetings from the json file
+     * Import a meeting plan uploaded as a json array or as NDJSON, booked chunk by chunk.
+     * The response is an NDJSON stream with one ImportEntryDto per entry and one ImportProgressDto
+     * per booked or failed chunk, the last one being marked done. An error ends the stream
+     * when the file cannot be read or the database cannot be reached.
+     *
+     * @param body the uploaded plan, entries holding meeting, time, type, attendees and optionally date (next monday by default) and reservedBy
+     * @param mode greedy to place the meetings in file order, maximize to place as many meetings as possible, within each chunk
+     * @param chunkSize the number of meetings booked at once
+     * @return the NDJSON stream
+     * @throws ResponseStatusException 400 if the mode or the chunk size is invalid
+     */
+    @PostMapping(value = "/import", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importMeetings(InputStream body, @RequestParam(defaultValue = "greedy") String mode,
+            @RequestParam(defaultValue = "500") int chunkSize) {
+        MeetingPlanner.Mode planningMode = MeetingPlanner.Mode.parse(mode);
+        if (planningMode == null)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Mode de planification invalide");
+        if (chunkSize < 1 || chunkSize > MeetingImportService.MAX_CHUNK_SIZE)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "La taille de lot doit être comprise entre 1 et " + MeetingImportService.MAX_CHUNK_SIZE);
+
+        StreamingResponseBody stream = outputStream -> {
+            try {
+                MeetingImportService.Progress progress = meetingImportService.importMeetings(body, planningMode,
+                        chunkSize, nextMonday(), new MeetingImportService.Listener() {
+                            @Override
+                            public void onEntry(MeetingImportService.Entry entry) {
+                                writeLine(outputStream, Mapper.ImportEntryToImportEntryDto(entry), false);
+                            }
+
+                            @Override
+                            public void onProgress(MeetingImportService.Progress progress) {
+                                writeLine(outputStream, Mapper.ProgressToImportProgressDto(progress, false), true);
+                            }
+                        });
+                writeLine(outputStream, Mapper.ProgressToImportProgressDto(progress, true), true);
+            } catch (JsonProcessingException e) {
+                writeLine(outputStream, Map.of("error", "Erreur lors de la lecture du fichier JSON"), true);
+            } catch (DataAccessException e) {
+                // the status is already sent, the failure is reported as the last line of the stream
+                writeLine(outputStream, Map.of("error", "Erreur d'accès à la base de données, import interrompu"), true);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(stream);
+    }
+
+    /**
+     * Write one line of an NDJSON stream
+     * @param outputStream the response stream
+     * @param value the value to write
+     * @param flush whether to send the lines written so far to the client
+     */
+    private void writeLine(OutputStream outputStream, Object value, boolean flush) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(value));
+            outputStream.write('\n');
+            if (flush)
+                outputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Load the monday meetings from the json file, one entry at a time
      * 
      * @return List<Reservation> the list of monday meetings
      * @throws IOException
      */
     private List<Reservation> loadMondayReservations() throws IOException {
-        JsonNode jsonNode = JsonReader.read("meetings");
         List<Reservation> reservations = new ArrayList<>();
-        LocalDate today = LocalDate.now();
-        LocalDate nextMonday = today.with(TemporalAdjusters.next(DayOfWeek.MONDAY));
-        for (JsonNode node : jsonNode) {
+        LocalDate nextMonday = nextMonday();
+        JsonReader.forEach("meetings", node -> {
             LocalTime startTime = LocalTime.parse(node.get("time").asText());
             Reservation reservation = Reservation.builder()
                     .reservationNumber(node.get("meeting").asInt())
@@ -90,8 +171,12 @@ public class ReservationController {
                     .attendees(node.get("attendees").asInt())
                     .build();
             reservations.add(reservation);
-        }
+        });
         return reservations;
     }
 
+    private static LocalDate nextMonday() {
+        return LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+    }
+
 }
@@ -0,0 +1,170 @@
+package com.zenika.meetingplanner.controller.api.v3;
+
+import com.zenika.meetingplanner.dto.ReservationDto;
+import com.zenika.meetingplanner.helper.Mapper;
+import com.zenika.meetingplanner.helper.ReservationCursor;
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.model.ReservationListing;
+import com.zenika.meetingplanner.request.ListReservationsRequest;
+import com.zenika.meetingplanner.request.StoreReservationRequest;
+import com.zenika.meetingplanner.service.BookingMetrics;
+import com.zenika.meetingplanner.service.BookingService;
+import com.zenika.meetingplanner.service.MeetingPlanner;
+import com.zenika.meetingplanner.service.ReservationService;
+import com.zenika.meetingplanner.service.ReservationValidator;
+import com.zenika.meetingplanner.service.ReservationValidator.Rejection;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.*;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reservation API on Reactor types, served by Spring MVC. The service calls remain blocking JPA calls:
+ * they run on the bounded elastic scheduler, which frees the request thread but holds a scheduler thread
+ * for the duration of each call, so the stack is not non-blocking end to end.
+ * The listing is pulled page by page as the client consumes it.
+ */
+@RestController
+@Component("v3ReservationController")
+@RequestMapping("/api/v3/reservations")
+public class ReservationController {
+
+    private static final int PAGE_SIZE = 100;
+
+    private final ReservationService reservationService;
+    private final BookingService bookingService;
+    private final ReservationValidator reservationValidator;
+    private final BookingMetrics bookingMetrics;
+
+    public ReservationController(ReservationService reservationService, BookingService bookingService,
+            ReservationValidator reservationValidator, BookingMetrics bookingMetrics) {
+        this.reservationService = reservationService;
+        this.bookingService = bookingService;
+        this.reservationValidator = reservationValidator;
+        this.bookingMetrics = bookingMetrics;
+    }
+
+    /**
+     * Stream every reservation matching the filters as NDJSON, in (date, start time, id) order.
+     * A page of reservations is read only once the client has consumed the previous one.
+     * @param request The optional filters (from, to, room, reservedBy) and cursor
+     * @return Flux of ReservationDto, failing with IllegalArgumentException before the first element for an invalid cursor
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ReservationDto> index(ListReservationsRequest request) {
+        return fetchPage(request)
+                .expand(page -> page.hasNext() ? fetchPage(nextPage(request, page)) : Mono.empty())
+                .concatMapIterable(Slice::getContent, 1)
+                .map(Mapper::ReservationListingToReservationDto);
+    }
+
+    /**
+     * Store a new reservation
+     * @param request The request containing the reservation data
+     * @return ReservationDto if the reservation is stored successfully, error message otherwise
+     */
+    @PostMapping
+    public Mono<ResponseEntity<?>> store(@RequestBody StoreReservationRequest request) {
+        return Mono.<ResponseEntity<?>>fromCallable(() -> book(request)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Plan a batch of meetings at once, like the monday meetings of v2
+     * @param requests The meetings, numbered in the given order
+     * @param mode greedy to place the meetings in the given order, maximize to place as many meetings as possible
+     * @return PlanningResultDto with the stored reservations and the meetings that could not be placed,
+     * error message otherwise, in particular for more than {@link BookingService#MAX_BULK_SIZE} meetings
+     */
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<?>> batch(@RequestBody List<StoreReservationRequest> requests,
+            @RequestParam(defaultValue = "greedy") String mode) {
+        return Mono.<ResponseEntity<?>>fromCallable(() -> bookAll(requests, mode)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(e.getMessage());
+    }
+
+    private ResponseEntity<?> book(StoreReservationRequest request) {
+        try {
+            Rejection rejection = reservationValidator.validate(request);
+            if (rejection != null) {
+                bookingMetrics.reject(rejection.name());
+                return ResponseEntity.badRequest().body(rejection.getMessage());
+            }
+
+            Reservation savedReservation = bookingService.book(Mapper.StoreReservationRequestToReservation(request));
+            if (savedReservation == null) {
+                bookingMetrics.reject(Rejection.NO_ROOM_AVAILABLE.name());
+                return ResponseEntity.status(404).body(Rejection.NO_ROOM_AVAILABLE.getMessage());
+            }
+            return ResponseEntity.status(201).body(Mapper.ReservationToReservationDto(savedReservation));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> bookAll(List<StoreReservationRequest> requests, String mode) {
+        try {
+            MeetingPlanner.Mode planningMode = MeetingPlanner.Mode.parse(mode);
+            if (planningMode == null)
+                return ResponseEntity.badRequest().body("Mode de planification invalide");
+            if (requests == null || requests.isEmpty() || requests.size() > BookingService.MAX_BULK_SIZE)
+                return ResponseEntity.badRequest()
+                        .body("Le lot doit contenir entre 1 et " + BookingService.MAX_BULK_SIZE + " réservations");
+
+            List<Reservation> meetings = new ArrayList<>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                Rejection rejection = reservationValidator.validate(requests.get(i));
+                if (rejection != null) {
+                    bookingMetrics.reject(rejection.name());
+                    return ResponseEntity.badRequest().body("Réunion " + (i + 1) + " : " + rejection.getMessage());
+                }
+                meetings.add(Mapper.StoreReservationRequestToReservation(requests.get(i)).toBuilder()
+                        .reservationNumber(i + 1)
+                        .build());
+            }
+
+            MeetingPlanner.Plan plan = bookingService.bookAll(meetings, planningMode);
+            return ResponseEntity.ok(Mapper.PlanToPlanningResultDto(plan));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Read a page of the listing on the bounded elastic scheduler
+     * @param request The filters and cursor of the page
+     * @return Mono of the page, an invalid cursor failing it with IllegalArgumentException
+     */
+    private Mono<Slice<ReservationListing>> fetchPage(ListReservationsRequest request) {
+        return Mono.fromCallable(() -> reservationService.findPage(request, PAGE_SIZE))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Get the filters of the page following a given page
+     * @param request The filters of the listing
+     * @param page The current page, having a next page
+     * @return The filters with the cursor of the next page
+     */
+    private static ListReservationsRequest nextPage(ListReservationsRequest request, Slice<ReservationListing> page) {
+        ListReservationsRequest next = new ListReservationsRequest();
+        next.setFrom(request.getFrom());
+        next.setTo(request.getTo());
+        next.setRoom(request.getRoom());
+        next.setReservedBy(request.getReservedBy());
+        next.setCursor(ReservationCursor.of(page.getContent().get(page.getNumberOfElements() - 1)).encode());
+        return next;
+    }
+}
@@ -0,0 +1,20 @@
+package com.zenika.meetingplanner.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CalendarDto {
+    private String from;
+    private String to;
+    private String firstSlot;
+    private int slotMinutes;
+    private List<RoomCalendarDto> rooms;
+}
@@ -0,0 +1,18 @@
+package com.zenika.meetingplanner.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportEntryDto {
+    private int line;
+    private Integer reservationNumber;
+    private String status;
+    private String reason;
+    private ReservationDto reservation;
+}
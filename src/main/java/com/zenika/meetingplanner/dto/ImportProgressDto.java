@@ -0,0 +1,19 @@
+package com.zenika.meetingplanner.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportProgressDto {
+    private int processed;
+    private int booked;
+    private int unplaced;
+    private int invalid;
+    private int failed;
+    private boolean done;
+}
@@ -0,0 +1,17 @@
+package com.zenika.meetingplanner.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PlanningResultDto {
+    private List<ReservationDto> reservations;
+    private List<UnplacedMeetingDto> unplaced;
+}
@@ -0,0 +1,17 @@
+package com.zenika.meetingplanner.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SuggestionDto {
+    private String date;
+    private String startTime;
+    private String endTime;
+    private RoomDto room;
+}
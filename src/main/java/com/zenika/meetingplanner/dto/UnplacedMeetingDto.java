@@ -0,0 +1,19 @@
+package com.zenika.meetingplanner.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UnplacedMeetingDto {
+    private int reservationNumber;
+    private String date;
+    private String startTime;
+    private String type;
+    private int attendees;
+    private String reason;
+}
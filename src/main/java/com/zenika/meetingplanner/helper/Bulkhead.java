@@ -0,0 +1,53 @@
+package com.zenika.meetingplanner.helper;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded number of concurrent callers, the others wait in arrival order for a permit
+ * or give up after a timeout.
+ */
+public class Bulkhead {
+
+    private final int capacity;
+    private final Semaphore permits;
+
+    public Bulkhead(int capacity) {
+        this.capacity = capacity;
+        this.permits = new Semaphore(capacity, true);
+    }
+
+    /**
+     * Wait for a permit
+     * @param timeout The longest time to wait
+     * @return True if a permit was acquired, false if the timeout elapsed
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public boolean tryAcquire(Duration timeout) throws InterruptedException {
+        return permits.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Give back a permit acquired with {@link #tryAcquire(Duration)}
+     */
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Get the number of permits
+     * @return The number of callers allowed at the same time
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Get the number of free permits
+     * @return The number of callers that could enter right now
+     */
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+}
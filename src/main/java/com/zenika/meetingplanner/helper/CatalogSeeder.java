@@ -0,0 +1,163 @@
+package com.zenika.meetingplanner.helper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.zenika.meetingplanner.repository.EquipmentRepository;
+import com.zenika.meetingplanner.repository.RoomRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StopWatch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load the equipments and the rooms of a json file into an empty database.
+ * The file is parsed room by room and the rows are inserted with JDBC batches in a single transaction.
+ */
+public class CatalogSeeder {
+
+    public static final List<String> EQUIPMENTS = List.of("ecran", "webcam", "tableau", "pieuvre");
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogSeeder.class);
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    public CatalogSeeder(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            ObjectProvider<CacheManager> cacheManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Seed the catalog unless rooms are already stored
+     * @param name The name of the json file of the rooms, without extension
+     * @return The number of rooms inserted, 0 when the catalog was already present
+     */
+    public int seed(String name) {
+        Integer existingRooms = jdbcTemplate.queryForObject("select count(*) from rooms", Integer.class);
+        if (existingRooms != null && existingRooms > 0) {
+            LOGGER.info("Catalog already holds {} rooms, seeding skipped", existingRooms);
+            return 0;
+        }
+
+        StopWatch stopWatch = new StopWatch("catalog seeding");
+        Integer rooms = transactionTemplate.execute(status -> {
+            stopWatch.start("equipments");
+            Map<String, Long> equipments = seedEquipments();
+            stopWatch.stop();
+            stopWatch.start("rooms");
+            int count = seedRooms(name, equipments);
+            stopWatch.stop();
+            return count;
+        });
+        stopWatch.start("cache eviction");
+        evictCaches();
+        stopWatch.stop();
+
+        LOGGER.info("Seeded {} rooms in {} ms ({})", rooms, stopWatch.getTotalTimeMillis(), breakdown(stopWatch));
+        return rooms != null ? rooms : 0;
+    }
+
+    /**
+     * Insert the missing equipments
+     * @return The id of each equipment by name
+     */
+    private Map<String, Long> seedEquipments() {
+        Map<String, Long> equipments = loadEquipments();
+        List<Object[]> missing = EQUIPMENTS.stream()
+                .filter(equipment -> !equipments.containsKey(equipment))
+                .map(equipment -> new Object[]{equipment})
+                .toList();
+        if (missing.isEmpty())
+            return equipments;
+        jdbcTemplate.batchUpdate("insert into equipments (name) values (?)", missing);
+        return loadEquipments();
+    }
+
+    private Map<String, Long> loadEquipments() {
+        Map<String, Long> equipments = new HashMap<>();
+        jdbcTemplate.query("select id, name from equipments",
+                resultSet -> { equipments.putIfAbsent(resultSet.getString("name"), resultSet.getLong("id")); });
+        return equipments;
+    }
+
+    /**
+     * Insert the rooms of the json file and their equipments, equipments not in the catalog being ignored
+     * @param name The name of the json file
+     * @param equipments The id of each equipment by name
+     * @return The number of rooms inserted
+     */
+    private int seedRooms(String name, Map<String, Long> equipments) {
+        List<Object[]> rooms = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> roomEquipments = new ArrayList<>();
+        try {
+            int count = JsonReader.forEach(name, node -> {
+                String roomName = node.get("name").asText();
+                rooms.add(new Object[]{roomName, node.get("capacity").asInt()});
+                JsonNode nodeEquipments = node.get("equipments");
+                if (nodeEquipments != null) {
+                    for (JsonNode item : nodeEquipments) {
+                        Long equipmentId = equipments.get(item.asText().toLowerCase());
+                        if (equipmentId != null)
+                            roomEquipments.add(new Object[]{roomName, equipmentId});
+                    }
+                }
+                if (rooms.size() == BATCH_SIZE)
+                    flush(rooms, roomEquipments);
+            });
+            flush(rooms, roomEquipments);
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flush(List<Object[]> rooms, List<Object[]> roomEquipments) {
+        if (!rooms.isEmpty())
+            jdbcTemplate.batchUpdate("insert into rooms (name, max_capacity) values (?, ?)", rooms);
+        if (!roomEquipments.isEmpty())
+            jdbcTemplate.batchUpdate("insert into room_equipments_mapping (room_name, equipment_id) values (?, ?)",
+                    roomEquipments);
+        rooms.clear();
+        roomEquipments.clear();
+    }
+
+    /**
+     * Clear the catalog caches and the cached RoomDtos, the JDBC inserts bypassing the repositories
+     * and their listeners
+     */
+    private void evictCaches() {
+        Mapper.evictRoomDtos();
+        cacheManager.ifAvailable(manager -> {
+            for (String cacheName : List.of(RoomRepository.CACHE, EquipmentRepository.CACHE)) {
+                Cache cache = manager.getCache(cacheName);
+                if (cache != null)
+                    cache.clear();
+            }
+        });
+    }
+
+    private static String breakdown(StopWatch stopWatch) {
+        StringBuilder breakdown = new StringBuilder();
+        for (StopWatch.TaskInfo task : stopWatch.getTaskInfo()) {
+            if (!breakdown.isEmpty())
+                breakdown.append(", ");
+            breakdown.append(task.getTaskName()).append(' ').append(task.getTimeMillis()).append(" ms");
+        }
+        return breakdown.toString();
+    }
+}
@@ -1,13 +1,19 @@
 package com.zenika.meetingplanner.helper;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
 
 import org.springframework.core.io.ClassPathResource;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 public class JsonReader {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     
     /**
 	 * Read the json file (rooms data) and return a list of type JsonNode
@@ -17,8 +23,45 @@ public class JsonReader {
 	public static JsonNode read(String name) throws IOException {
 		ClassPathResource resource = new ClassPathResource(name + ".json");
 
-		ObjectMapper objectMapper = new ObjectMapper();
+		return OBJECT_MAPPER.readTree(resource.getInputStream());
+	}
 
-		return objectMapper.readTree(resource.getInputStream());
+	/**
+	 * Read a json file holding an array element by element, only one element being in memory at a time
+	 * @param name The name of the file, without extension
+	 * @param consumer The consumer of each element of the array
+	 * @return The number of elements read
+	 * @throws IOException if the file cannot be read
+	 */
+	public static int forEach(String name, Consumer<JsonNode> consumer) throws IOException {
+		ClassPathResource resource = new ClassPathResource(name + ".json");
+		try (InputStream inputStream = resource.getInputStream()) {
+			return forEach(inputStream, consumer);
+		}
+	}
+
+	/**
+	 * Read a json array or a stream of newline delimited json values element by element,
+	 * only one element being in memory at a time
+	 * @param inputStream The json content, left open
+	 * @param consumer The consumer of each element
+	 * @return The number of elements read
+	 * @throws IOException if the content cannot be read or is not valid json
+	 */
+	public static int forEach(InputStream inputStream, Consumer<JsonNode> consumer) throws IOException {
+		try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(inputStream)) {
+			parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+			JsonToken token = parser.nextToken();
+			boolean array = token == JsonToken.START_ARRAY;
+			if (array)
+				token = parser.nextToken();
+			int count = 0;
+			while (token != null && !(array && token == JsonToken.END_ARRAY)) {
+				consumer.accept(OBJECT_MAPPER.readTree(parser));
+				count++;
+				token = parser.nextToken();
+			}
+			return count;
+		}
 	}
 }
@@ -1,17 +1,60 @@
 package com.zenika.meetingplanner.helper;
 
+import java.io.UncheckedIOException;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zenika.meetingplanner.dto.CalendarDto;
 import com.zenika.meetingplanner.dto.EquipmentDto;
+import com.zenika.meetingplanner.dto.ImportEntryDto;
+import com.zenika.meetingplanner.dto.ImportProgressDto;
+import com.zenika.meetingplanner.dto.PlanningResultDto;
 import com.zenika.meetingplanner.dto.ReservationDto;
+import com.zenika.meetingplanner.dto.RoomCalendarDto;
 import com.zenika.meetingplanner.dto.RoomDto;
+import com.zenika.meetingplanner.dto.SuggestionDto;
+import com.zenika.meetingplanner.dto.UnplacedMeetingDto;
 import com.zenika.meetingplanner.model.Equipment;
 import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.model.ReservationListing;
 import com.zenika.meetingplanner.model.Room;
+import com.zenika.meetingplanner.request.StoreReservationRequest;
+import com.zenika.meetingplanner.service.CalendarService;
+import com.zenika.meetingplanner.service.MeetingImportService;
+import com.zenika.meetingplanner.service.MeetingPlanner;
+import com.zenika.meetingplanner.service.ReservationValidator;
+import com.zenika.meetingplanner.service.SlotSuggestionService;
 
 public class Mapper {
 
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
+    /**
+     * RoomDto of each room by name, shared by the reservations of the room
+     */
+    private static final Map<String, RoomDto> ROOM_DTOS = new ConcurrentHashMap<>();
+
+    /**
+     * RoomDto of the last room version found in the reservation listing, by room name
+     */
+    private static final Map<String, ListingRoom> LISTING_ROOMS = new ConcurrentHashMap<>();
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<List<EquipmentDto>> EQUIPMENT_DTO_LIST = new TypeReference<>() {};
+
     /**
      * Convert Equipment to EquipmentDto
      * @param equipment The equipment to convert
@@ -45,10 +88,40 @@ public class Mapper {
         return RoomDto.builder()
                 .name(room.getName())
                 .maxCapacity(room.getMaxCapacity())
-                .equipments(room.getEquipments().stream().map(Mapper::EquipmentToEquipmentDto).collect(Collectors.toSet()))
+                .equipments(room.getEquipments().stream().map(Mapper::EquipmentToEquipmentDto).collect(Collectors.toUnmodifiableSet()))
                 .build();
     }
 
+    /**
+     * Get the RoomDto of a room, converted once and then shared until the room changes
+     * @param room The Room to convert
+     * @return The shared RoomDto, which must not be modified
+     */
+    public static RoomDto RoomToCachedRoomDto(Room room) {
+        if (room.getName() == null)
+            return RoomToRoomDto(room);
+        return ROOM_DTOS.computeIfAbsent(room.getName(), name -> RoomToRoomDto(room));
+    }
+
+    /**
+     * Drop the cached RoomDtos of a room
+     * @param roomName The name of the room
+     */
+    public static void evictRoomDto(String roomName) {
+        if (roomName != null) {
+            ROOM_DTOS.remove(roomName);
+            LISTING_ROOMS.remove(roomName);
+        }
+    }
+
+    /**
+     * Drop the cached RoomDtos of every room
+     */
+    public static void evictRoomDtos() {
+        ROOM_DTOS.clear();
+        LISTING_ROOMS.clear();
+    }
+
     /**
      * Convert RoomDto to Room
      * @param roomDto The RoomDto to convert
@@ -72,13 +145,13 @@ public class Mapper {
         return ReservationDto.builder()
                 .id(reservation.getId())
                 .reservationNumber(reservation.getReservationNumber())
-                .date(reservation.getDate() != null ? reservation.getDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")) : null)
-                .startTime(reservation.getStartTime() != null ? reservation.getStartTime().format(DateTimeFormatter.ofPattern("HH:mm")) : null)
-                .endTime(reservation.getEndTime() != null ? reservation.getEndTime().format(DateTimeFormatter.ofPattern("HH:mm")) : null)
+                .date(reservation.getDate() != null ? reservation.getDate().format(DATE_FORMATTER) : null)
+                .startTime(reservation.getStartTime() != null ? reservation.getStartTime().format(TIME_FORMATTER) : null)
+                .endTime(reservation.getEndTime() != null ? reservation.getEndTime().format(TIME_FORMATTER) : null)
                 .type(reservation.getType())
                 .attendees(reservation.getAttendees())
                 .reservedBy(reservation.getReservedBy())
-                .room(RoomToRoomDto(reservation.getRoom()))
+                .room(RoomToCachedRoomDto(reservation.getRoom()))
                 .build();
     }
 
@@ -91,9 +164,9 @@ public class Mapper {
         return Reservation.builder()
                 .id(reservationDto.getId())
                 .reservationNumber(reservationDto.getReservationNumber())
-                .date(reservationDto.getDate() != null ? java.time.LocalDate.parse(reservationDto.getDate(), DateTimeFormatter.ofPattern("dd/MM/yyyy")) : null)
-                .startTime(reservationDto.getStartTime() != null ? java.time.LocalTime.parse(reservationDto.getStartTime(), DateTimeFormatter.ofPattern("HH:mm")) : null)
-                .endTime(reservationDto.getEndTime() != null ? java.time.LocalTime.parse(reservationDto.getEndTime(), DateTimeFormatter.ofPattern("HH:mm")) : null)
+                .date(reservationDto.getDate() != null ? java.time.LocalDate.parse(reservationDto.getDate(), DATE_FORMATTER) : null)
+                .startTime(reservationDto.getStartTime() != null ? java.time.LocalTime.parse(reservationDto.getStartTime(), TIME_FORMATTER) : null)
+                .endTime(reservationDto.getEndTime() != null ? java.time.LocalTime.parse(reservationDto.getEndTime(), TIME_FORMATTER) : null)
                 .type(reservationDto.getType())
                 .attendees(reservationDto.getAttendees())
                 .reservedBy(reservationDto.getReservedBy())
@@ -101,5 +174,212 @@ public class Mapper {
                 .build();
     }
 
+    /**
+     * Convert ReservationListing to ReservationDto, the RoomDto being parsed once per room version
+     * @param reservationListing The ReservationListing to convert
+     * @return The ReservationDto
+     */
+    public static ReservationDto ReservationListingToReservationDto(ReservationListing reservationListing) {
+        return ReservationDto.builder()
+                .id(reservationListing.getId())
+                .reservationNumber(reservationListing.getReservationNumber())
+                .date(reservationListing.getDate() != null ? reservationListing.getDate().format(DATE_FORMATTER) : null)
+                .startTime(reservationListing.getStartTime() != null ? reservationListing.getStartTime().format(TIME_FORMATTER) : null)
+                .endTime(reservationListing.getEndTime() != null ? reservationListing.getEndTime().format(TIME_FORMATTER) : null)
+                .type(reservationListing.getType())
+                .attendees(reservationListing.getAttendees())
+                .reservedBy(reservationListing.getReservedBy())
+                .room(reservationListing.getRoomName() != null ? ListingRoomDto(reservationListing) : null)
+                .build();
+    }
+
+    /**
+     * Get the RoomDto of a reservation listing row, parsed again only when the room has changed
+     * @param reservationListing The row, with a room
+     * @return The RoomDto
+     */
+    private static RoomDto ListingRoomDto(ReservationListing reservationListing) {
+        ListingRoom cached = LISTING_ROOMS.get(reservationListing.getRoomName());
+        if (cached != null && cached.capacity() == reservationListing.getRoomCapacity()
+                && Objects.equals(cached.equipments(), reservationListing.getRoomEquipments()))
+            return cached.room();
+        RoomDto room = RoomDto.builder()
+                .name(reservationListing.getRoomName())
+                .maxCapacity(reservationListing.getRoomCapacity())
+                .equipments(JsonToEquipmentDtos(reservationListing.getRoomEquipments()))
+                .build();
+        LISTING_ROOMS.put(reservationListing.getRoomName(),
+                new ListingRoom(reservationListing.getRoomCapacity(), reservationListing.getRoomEquipments(), room));
+        return room;
+    }
+
+    /**
+     * Version of a room in the reservation listing and its RoomDto
+     */
+    private record ListingRoom(int capacity, String equipments, RoomDto room) {}
+
+    /**
+     * Convert the equipments of a room to the JSON stored in the reservation listing
+     * @param equipmentDtos The equipments
+     * @return A JSON array of EquipmentDto, ordered by id
+     */
+    public static String EquipmentDtosToJson(Collection<EquipmentDto> equipmentDtos) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(equipmentDtos.stream()
+                    .sorted(Comparator.comparing(EquipmentDto::getId, Comparator.nullsFirst(Comparator.naturalOrder())))
+                    .toList());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Convert the JSON stored in the reservation listing to the equipments of a room
+     * @param json A JSON array of EquipmentDto, null for no equipment
+     * @return The unmodifiable set of EquipmentDto
+     */
+    public static Set<EquipmentDto> JsonToEquipmentDtos(String json) {
+        if (json == null)
+            return Set.of();
+        try {
+            return Set.copyOf(OBJECT_MAPPER.readValue(json, EQUIPMENT_DTO_LIST));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Convert StoreReservationRequest to a Reservation, without room, lasting one hour unless an end time is given
+     * @param request The validated request to convert
+     * @return The Reservation
+     */
+    public static Reservation StoreReservationRequestToReservation(StoreReservationRequest request) {
+        return Reservation.builder()
+                .date(request.getDate())
+                .startTime(request.getStartTime())
+                .endTime(request.getEndTime() != null ? request.getEndTime() : request.getStartTime().plusHours(1))
+                .type(request.getType())
+                .attendees(request.getAttendees())
+                .reservedBy(request.getReservedBy())
+                .build();
+    }
+
+    /**
+     * Convert a meeting that could not be placed to UnplacedMeetingDto
+     * @param unplaced The meeting and the reason why it could not be placed
+     * @return The UnplacedMeetingDto
+     */
+    public static UnplacedMeetingDto UnplacedToUnplacedMeetingDto(MeetingPlanner.Unplaced unplaced) {
+        Reservation meeting = unplaced.meeting();
+        return UnplacedMeetingDto.builder()
+                .reservationNumber(meeting.getReservationNumber())
+                .date(meeting.getDate() != null ? meeting.getDate().format(DATE_FORMATTER) : null)
+                .startTime(meeting.getStartTime() != null ? meeting.getStartTime().format(TIME_FORMATTER) : null)
+                .type(meeting.getType())
+                .attendees(meeting.getAttendees())
+                .reason(unplaced.reason().name())
+                .build();
+    }
+
+    /**
+     * Convert a Plan to PlanningResultDto
+     * @param plan The Plan to convert
+     * @return The PlanningResultDto
+     */
+    public static PlanningResultDto PlanToPlanningResultDto(MeetingPlanner.Plan plan) {
+        return PlanningResultDto.builder()
+                .reservations(plan.placed().stream().map(Mapper::ReservationToReservationDto).toList())
+                .unplaced(plan.unplaced().stream().map(Mapper::UnplacedToUnplacedMeetingDto).toList())
+                .build();
+    }
+
+    /**
+     * Convert the outcome of an imported entry to ImportEntryDto
+     * @param entry The outcome of the entry
+     * @return The ImportEntryDto
+     */
+    public static ImportEntryDto ImportEntryToImportEntryDto(MeetingImportService.Entry entry) {
+        String reason = null;
+        if (entry.reason() != null)
+            reason = entry.reason().name();
+        else if (entry.rejection() != null)
+            reason = entry.rejection().getMessage();
+        else if (entry.failed())
+            reason = "Le lot de cette réunion n'a pas pu être enregistré, il peut être renvoyé";
+        return ImportEntryDto.builder()
+                .line(entry.line())
+                .reservationNumber(entry.meeting() != null ? entry.meeting().getReservationNumber() : null)
+                .status(entry.status().name())
+                .reason(reason)
+                .reservation(entry.reservation() != null ? ReservationToReservationDto(entry.reservation()) : null)
+                .build();
+    }
+
+    /**
+     * Convert the progress of an import to ImportProgressDto
+     * @param progress The counters of the import
+     * @param done Whether the whole plan has been processed
+     * @return The ImportProgressDto
+     */
+    public static ImportProgressDto ProgressToImportProgressDto(MeetingImportService.Progress progress, boolean done) {
+        return ImportProgressDto.builder()
+                .processed(progress.processed())
+                .booked(progress.booked())
+                .unplaced(progress.unplaced())
+                .invalid(progress.invalid())
+                .failed(progress.failed())
+                .done(done)
+                .build();
+    }
+
+    /**
+     * Convert a suggested slot to SuggestionDto
+     * @param suggestion The free slot and its room
+     * @return The SuggestionDto
+     */
+    public static SuggestionDto SuggestionToSuggestionDto(SlotSuggestionService.Suggestion suggestion) {
+        return SuggestionDto.builder()
+                .date(suggestion.date().format(DATE_FORMATTER))
+                .startTime(suggestion.startTime().format(TIME_FORMATTER))
+                .endTime(suggestion.endTime().format(TIME_FORMATTER))
+                .room(RoomToCachedRoomDto(suggestion.room()))
+                .build();
+    }
+
+    /**
+     * Convert a Calendar to CalendarDto, each day of a room being a string with one character per slot,
+     * '1' when busy and '0' when free
+     * @param calendar The Calendar to convert
+     * @return The CalendarDto
+     */
+    public static CalendarDto CalendarToCalendarDto(CalendarService.Calendar calendar) {
+        return CalendarDto.builder()
+                .from(calendar.from().format(DATE_FORMATTER))
+                .to(calendar.to().format(DATE_FORMATTER))
+                .firstSlot(LocalTime.of(ReservationValidator.FIRST_HOUR, 0).format(TIME_FORMATTER))
+                .slotMinutes(60)
+                .rooms(calendar.rooms().stream().map(Mapper::RoomCalendarToRoomCalendarDto).toList())
+                .build();
+    }
+
+    /**
+     * Convert a RoomCalendar to RoomCalendarDto
+     * @param roomCalendar The RoomCalendar to convert
+     * @return The RoomCalendarDto
+     */
+    public static RoomCalendarDto RoomCalendarToRoomCalendarDto(CalendarService.RoomCalendar roomCalendar) {
+        List<String> days = new ArrayList<>(roomCalendar.busySlots().length);
+        char[] slots = new char[CalendarService.SLOTS];
+        for (int busySlots : roomCalendar.busySlots()) {
+            for (int slot = 0; slot < slots.length; slot++) {
+                slots[slot] = (busySlots & (1 << slot)) != 0 ? '1' : '0';
+            }
+            days.add(new String(slots));
+        }
+        return RoomCalendarDto.builder()
+                .name(roomCalendar.room().getName())
+                .days(days)
+                .build();
+    }
 
 }
@@ -0,0 +1,58 @@
+package com.zenika.meetingplanner.helper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Base64;
+
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.model.ReservationListing;
+
+/**
+ * Position of a reservation in the (date, startTime, id) listing order, exchanged with the
+ * clients as an opaque string to fetch the next page.
+ */
+public record ReservationCursor(LocalDate date, LocalTime startTime, Long id) {
+
+    /**
+     * Get the cursor pointing after the given reservation
+     * @param reservation The last reservation of a page
+     * @return The cursor
+     */
+    public static ReservationCursor of(Reservation reservation) {
+        return new ReservationCursor(reservation.getDate(), reservation.getStartTime(), reservation.getId());
+    }
+
+    /**
+     * Get the cursor pointing after the given listing row
+     * @param reservationListing The last row of a page
+     * @return The cursor
+     */
+    public static ReservationCursor of(ReservationListing reservationListing) {
+        return new ReservationCursor(reservationListing.getDate(), reservationListing.getStartTime(), reservationListing.getId());
+    }
+
+    /**
+     * Encode the cursor for the clients
+     * @return The encoded cursor
+     */
+    public String encode() {
+        String value = date + "|" + startTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor received from a client
+     * @param value The encoded cursor
+     * @return The cursor
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    public static ReservationCursor decode(String value) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8).split("\\|");
+            return new ReservationCursor(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+    }
+}
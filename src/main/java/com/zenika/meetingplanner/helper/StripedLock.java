@@ -0,0 +1,58 @@
+package com.zenika.meetingplanner.helper;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared by hashing the keys, so unrelated keys rarely contend
+ * while the number of locks stays bounded.
+ */
+public class StripedLock {
+
+    private final Lock[] stripes;
+
+    public StripedLock(int stripes) {
+        this.stripes = new Lock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Get the lock guarding a key
+     * @param key The parts of the key
+     * @return The lock of the key
+     */
+    public Lock get(Object... key) {
+        return stripes[indexOf(key)];
+    }
+
+    /**
+     * Get the locks guarding several keys, each lock once and always in the same order
+     * so that threads locking them one after the other cannot deadlock
+     * @param keys The keys, each one given as the list of its parts
+     * @return The locks of the keys
+     */
+    public List<Lock> getAll(Collection<List<?>> keys) {
+        return keys.stream()
+                .mapToInt(key -> indexOf(key.toArray()))
+                .distinct()
+                .sorted()
+                .mapToObj(index -> stripes[index])
+                .toList();
+    }
+
+    /**
+     * Get the stripe a key falls in
+     * @param key The parts of the key
+     * @return The index of the stripe
+     */
+    public int indexOf(Object... key) {
+        int hash = Arrays.hashCode(key);
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, stripes.length);
+    }
+}
@@ -0,0 +1,51 @@
+package com.zenika.meetingplanner.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Reservation moved out of the reservations table once past the retention horizon.
+ * Rows keep the id of the live reservation, they are read-only and only listed.
+ */
+@Entity
+@Table(name = "reservations_archive", indexes = {
+        @Index(name = "idx_reservations_archive_date_start", columnList = "date, start_time, id"),
+        @Index(name = "idx_reservations_archive_reserved_by", columnList = "reservedBy, date, start_time, id"),
+        @Index(name = "idx_reservations_archive_room", columnList = "room_name, date, start_time")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedReservation {
+    @Id
+    private Long id;
+
+    @Column(name = "reservation_number")
+    private int reservationNumber;
+
+    private LocalDate date;
+
+    @Column(name = "start_time")
+    private LocalTime startTime;
+
+    @Column(name = "end_time")
+    private LocalTime endTime;
+
+    private String type;
+
+    private int attendees;
+
+    @Column(name = "reservedBy")
+    private String reservedBy;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "room_name")
+    private Room room;
+}
@@ -0,0 +1,74 @@
+package com.zenika.meetingplanner.model;
+
+import java.time.Instant;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a request sent with an idempotency key, replayed when the request is retried.
+ * The record is inserted before the request is processed, without status, so that a concurrent
+ * retry fails on the primary key instead of processing the request twice.
+ * The result is written by its claimer in the transaction of the request, a claim left without
+ * result past the claim timeout is taken over by the next retry.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    @Column(name = "idempotency_key")
+    private String key;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    /**
+     * HTTP status of the result, null while the request is processed
+     */
+    private Integer status;
+
+    @Lob
+    @Column(name = "response_body")
+    private String responseBody;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    /**
+     * Token of the request processing the key, the result can only be written by this request
+     */
+    @Column(name = "claimed_by", length = 36)
+    private String claimedBy;
+
+    @Transient
+    @Builder.Default
+    private boolean fresh = true;
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    @Override
+    public boolean isNew() {
+        return fresh;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        fresh = false;
+    }
+}
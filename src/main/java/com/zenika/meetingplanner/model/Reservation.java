@@ -10,14 +10,20 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_reservations_room_date_start", columnNames = {"room_name", "date", "start_time"})
+}, indexes = {
+        @Index(name = "idx_reservations_date_start", columnList = "date, start_time, id"),
+        @Index(name = "idx_reservations_reserved_by", columnList = "reservedBy, date, start_time, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Reservation {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservations_seq")
+    @SequenceGenerator(name = "reservations_seq", sequenceName = "reservations_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "reservation_number")
@@ -25,8 +31,10 @@ public class Reservation {
 
     private LocalDate date;
     
+    @Column(name = "start_time")
     private LocalTime startTime;
     
+    @Column(name = "end_time")
     private LocalTime endTime;
     
     private String type;
@@ -36,7 +44,7 @@ public class Reservation {
     @Column(name = "reservedBy")
     private String reservedBy;
     
-    @ManyToOne(cascade = CascadeType.REMOVE)
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.REMOVE)
     @JoinColumn(name = "room_name")
     private Room room;
 }
@@ -0,0 +1,52 @@
+package com.zenika.meetingplanner.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Change of a reservation written to the outbox in the transaction of the change.
+ * The id is the offset of the event, clients resume the event stream from the last id they received.
+ */
+@Entity
+@Table(name = "reservation_events", indexes = {
+        @Index(name = "idx_reservation_events_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationEvent {
+
+    public enum Type {
+        CREATED,
+        CANCELLED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The name of the Type of the change
+     */
+    @Column(nullable = false, length = 16)
+    private String type;
+
+    @Column(name = "reservation_id", nullable = false)
+    private Long reservationId;
+
+    /**
+     * The reservation as a ReservationDto in JSON, as it was at the time of the change
+     */
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
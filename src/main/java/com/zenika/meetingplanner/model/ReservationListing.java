@@ -0,0 +1,63 @@
+package com.zenika.meetingplanner.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Flattened copy of a live or archived reservation with its room, inserted with the reservation
+ * and read by the listings without joining rooms and equipments.
+ * Rows are kept when their reservation is archived and updated when their room changes.
+ */
+@Entity
+@Table(name = "reservation_listing", indexes = {
+        @Index(name = "idx_reservation_listing_date_start", columnList = "date, start_time, id"),
+        @Index(name = "idx_reservation_listing_reserved_by", columnList = "reserved_by, date, start_time, id"),
+        @Index(name = "idx_reservation_listing_room", columnList = "room_name, date, start_time, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationListing {
+    /**
+     * The id of the reservation
+     */
+    @Id
+    private Long id;
+
+    @Column(name = "reservation_number")
+    private int reservationNumber;
+
+    private LocalDate date;
+
+    @Column(name = "start_time")
+    private LocalTime startTime;
+
+    @Column(name = "end_time")
+    private LocalTime endTime;
+
+    private String type;
+
+    private int attendees;
+
+    @Column(name = "reserved_by")
+    private String reservedBy;
+
+    @Column(name = "room_name")
+    private String roomName;
+
+    @Column(name = "room_capacity")
+    private int roomCapacity;
+
+    /**
+     * The equipments of the room as a JSON array of EquipmentDto, ordered by id
+     */
+    @Column(name = "room_equipments", length = 2000)
+    private String roomEquipments;
+}
@@ -1,15 +1,18 @@
 package com.zenika.meetingplanner.model;
 
+import com.zenika.meetingplanner.service.RoomCatalogListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.Set;
 import java.util.List;
 
 @Entity
+@EntityListeners(RoomCatalogListener.class)
 @Table(name = "rooms")
 @Data
 @NoArgsConstructor
@@ -23,11 +26,14 @@ public class Room {
     @Column(name = "max_capacity")
     private int maxCapacity;
 
+    @BatchSize(size = 50)
     @ManyToMany(fetch = FetchType.LAZY, cascade = CascadeType.REMOVE)
     @JoinTable(name = "room_equipments_mapping", joinColumns = @JoinColumn(name = "room_name"),
-            inverseJoinColumns = @JoinColumn(name = "equipment_id"))
+            inverseJoinColumns = @JoinColumn(name = "equipment_id"),
+            indexes = @Index(name = "idx_room_equipments_equipment_room", columnList = "equipment_id, room_name"))
     private Set<Equipment> equipments;
 
+    @BatchSize(size = 50)
     @OneToMany(mappedBy = "room", fetch = FetchType.LAZY, cascade = CascadeType.REMOVE)
     private List<Reservation> reservations;
 
@@ -0,0 +1,49 @@
+package com.zenika.meetingplanner.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Thirty-minute slot of a room and day claimed by a reservation, its cleanup buffers included.
+ * The primary key lets a single reservation claim a slot, whichever instance books it.
+ */
+@Entity
+@Table(name = "slot_claims")
+@IdClass(SlotClaim.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlotClaim {
+
+    @Id
+    @Column(name = "room_name")
+    private String roomName;
+
+    @Id
+    private LocalDate date;
+
+    /**
+     * Index of the slot in the day, 0 for 00:00-00:30
+     */
+    @Id
+    private Integer slot;
+
+    @Column(name = "reservation_id", nullable = false)
+    private Long reservationId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String roomName;
+        private LocalDate date;
+        private Integer slot;
+    }
+}
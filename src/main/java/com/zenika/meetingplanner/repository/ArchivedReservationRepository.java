@@ -0,0 +1,28 @@
+package com.zenika.meetingplanner.repository;
+
+import com.zenika.meetingplanner.model.ArchivedReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface ArchivedReservationRepository extends JpaRepository<ArchivedReservation, Long> {
+
+    /**
+     * Copy the reservations of a day into the archive, in the transaction that deletes them
+     * @param date The date of the reservations
+     * @return The number of archived reservations
+     */
+    @Modifying
+    @Query(value = """
+            insert into reservations_archive
+                (id, reservation_number, date, start_time, end_time, type, attendees, reserved_by, room_name)
+            select id, reservation_number, date, start_time, end_time, type, attendees, reserved_by, room_name
+            from reservations where date = :date
+            """, nativeQuery = true)
+    int archive(@Param("date") LocalDate date);
+}
@@ -1,9 +1,49 @@
 package com.zenika.meetingplanner.repository;
 
 import com.zenika.meetingplanner.model.Equipment;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
+/**
+ * Writes also evict the room catalog, which holds the equipments of each room
+ */
 @Repository
 public interface EquipmentRepository extends JpaRepository<Equipment, Long> {
+
+    /**
+     * Name of the cache of the equipments
+     */
+    String CACHE = "equipments";
+
+    /**
+     * Get all equipments, from the cache until an equipment changes
+     * @return List of Equipment, shared by the callers and not to be modified
+     */
+    @Override
+    @Cacheable(CACHE)
+    List<Equipment> findAll();
+
+    @Override
+    @CacheEvict(cacheNames = {CACHE, RoomRepository.CACHE}, allEntries = true)
+    <S extends Equipment> S save(S equipment);
+
+    @Override
+    @CacheEvict(cacheNames = {CACHE, RoomRepository.CACHE}, allEntries = true)
+    <S extends Equipment> List<S> saveAll(Iterable<S> equipments);
+
+    @Override
+    @CacheEvict(cacheNames = {CACHE, RoomRepository.CACHE}, allEntries = true)
+    void delete(Equipment equipment);
+
+    @Override
+    @CacheEvict(cacheNames = {CACHE, RoomRepository.CACHE}, allEntries = true)
+    void deleteById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = {CACHE, RoomRepository.CACHE}, allEntries = true)
+    void deleteAll();
 }
@@ -0,0 +1,68 @@
+package com.zenika.meetingplanner.repository;
+
+import com.zenika.meetingplanner.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Take over a claim left without result
+     * @param key The idempotency key
+     * @param previousClaimedBy The token of the stale claim
+     * @param claimedBy The token of the new claim
+     * @param createdAt The time of the new claim
+     * @return 1 if the claim is taken over, 0 if it has been completed or taken over in the meantime
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update IdempotencyRecord r set r.claimedBy = :claimedBy, r.createdAt = :createdAt
+            where r.key = :key and r.status is null
+              and (r.claimedBy = :previousClaimedBy or (:previousClaimedBy is null and r.claimedBy is null))
+            """)
+    int takeOver(@Param("key") String key, @Param("previousClaimedBy") String previousClaimedBy,
+            @Param("claimedBy") String claimedBy, @Param("createdAt") Instant createdAt);
+
+    /**
+     * Write the result of a claimed key
+     * @param key The idempotency key
+     * @param claimedBy The token of the claim
+     * @param status The HTTP status of the result
+     * @param responseBody The body of the result
+     * @return 1 if the result is written, 0 if the claim has been taken over
+     */
+    @Modifying
+    @Query("""
+            update IdempotencyRecord r set r.status = :status, r.responseBody = :responseBody
+            where r.key = :key and r.status is null and r.claimedBy = :claimedBy
+            """)
+    int complete(@Param("key") String key, @Param("claimedBy") String claimedBy, @Param("status") int status,
+            @Param("responseBody") String responseBody);
+
+    /**
+     * Delete a claim left without result
+     * @param key The idempotency key
+     * @param claimedBy The token of the claim
+     * @return The number of deleted claims
+     */
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.key = :key and r.status is null and r.claimedBy = :claimedBy")
+    int release(@Param("key") String key, @Param("claimedBy") String claimedBy);
+
+    /**
+     * Delete the keys claimed before an instant
+     * @param horizon The instant
+     * @return The number of deleted keys
+     */
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :horizon")
+    int deleteByCreatedAtBefore(@Param("horizon") Instant horizon);
+}
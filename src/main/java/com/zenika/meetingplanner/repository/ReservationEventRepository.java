@@ -0,0 +1,49 @@
+package com.zenika.meetingplanner.repository;
+
+import com.zenika.meetingplanner.model.ReservationEvent;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReservationEventRepository extends JpaRepository<ReservationEvent, Long> {
+
+    /**
+     * Get the events following an offset, in offset order
+     * @param id The offset of the last event already read
+     * @param limit The maximum number of events
+     * @return List of ReservationEvent
+     */
+    List<ReservationEvent> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Get the events of some offsets, in offset order
+     * @param ids The offsets
+     * @return List of ReservationEvent, without the offsets missing from the outbox
+     */
+    List<ReservationEvent> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    /**
+     * Get the offset of the latest event
+     * @return The offset, null if the outbox is empty
+     */
+    @Query("select max(e.id) from ReservationEvent e")
+    Long findLastId();
+
+    /**
+     * Delete the events written before an instant
+     * @param horizon The instant
+     * @return The number of deleted events
+     */
+    @Modifying
+    @Query("delete from ReservationEvent e where e.createdAt < :horizon")
+    int deleteByCreatedAtBefore(@Param("horizon") Instant horizon);
+}
@@ -0,0 +1,43 @@
+package com.zenika.meetingplanner.repository;
+
+import com.zenika.meetingplanner.model.ReservationListing;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Listing queries built with only the predicates of the given filters, so that the database
+ * can pick the index of the filter and scan a range of it
+ */
+public interface ReservationListingQueries {
+
+    /**
+     * Get a page of reservations ordered by date, start time and id, starting after the given position,
+     * in a single scan of the listing table. Every filter is optional.
+     * @param from The first date, inclusive
+     * @param to The last date, inclusive
+     * @param room The name of the room
+     * @param reservedBy The identifier of the person who booked
+     * @param afterDate The date of the last reservation of the previous page
+     * @param afterTime The start time of the last reservation of the previous page
+     * @param afterId The id of the last reservation of the previous page
+     * @param limit The maximum number of reservations
+     * @return List of ReservationListing
+     */
+    List<ReservationListing> findPage(LocalDate from, LocalDate to, String room, String reservedBy,
+            LocalDate afterDate, LocalTime afterTime, Long afterId, Limit limit);
+
+    /**
+     * Stream the reservations matching the filters in listing order, rows are read from the
+     * database as the stream is consumed. Must be called inside a transaction.
+     * @param from The first date, inclusive
+     * @param to The last date, inclusive
+     * @param room The name of the room
+     * @param reservedBy The identifier of the person who booked
+     * @return Stream of ReservationListing
+     */
+    Stream<ReservationListing> streamAll(LocalDate from, LocalDate to, String room, String reservedBy);
+}
@@ -0,0 +1,78 @@
+package com.zenika.meetingplanner.repository;
+
+import com.zenika.meetingplanner.model.ReservationListing;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+class ReservationListingQueriesImpl implements ReservationListingQueries {
+
+    private static final int FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ReservationListing> findPage(LocalDate from, LocalDate to, String room, String reservedBy,
+            LocalDate afterDate, LocalTime afterTime, Long afterId, Limit limit) {
+        TypedQuery<ReservationListing> query = query(from, to, room, reservedBy, afterDate, afterTime, afterId);
+        if (limit.isLimited())
+            query.setMaxResults(limit.max());
+        return query.getResultList();
+    }
+
+    @Override
+    public Stream<ReservationListing> streamAll(LocalDate from, LocalDate to, String room, String reservedBy) {
+        return query(from, to, room, reservedBy, null, null, null)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .getResultStream();
+    }
+
+    /**
+     * Build the listing query with a predicate per given filter, in (date, start time, id) order
+     */
+    private TypedQuery<ReservationListing> query(LocalDate from, LocalDate to, String room, String reservedBy,
+            LocalDate afterDate, LocalTime afterTime, Long afterId) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ReservationListing> query = builder.createQuery(ReservationListing.class);
+        Root<ReservationListing> reservation = query.from(ReservationListing.class);
+        Path<LocalDate> date = reservation.get("date");
+        Path<LocalTime> startTime = reservation.get("startTime");
+        Path<Long> id = reservation.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (from != null)
+            predicates.add(builder.greaterThanOrEqualTo(date, from));
+        if (to != null)
+            predicates.add(builder.lessThanOrEqualTo(date, to));
+        if (room != null)
+            predicates.add(builder.equal(reservation.get("roomName"), room));
+        if (reservedBy != null)
+            predicates.add(builder.equal(reservation.get("reservedBy"), reservedBy));
+        if (afterDate != null) {
+            // the plain bound lets the scan start at the cursor, the keyset condition alone is not sargable
+            predicates.add(builder.greaterThanOrEqualTo(date, afterDate));
+            predicates.add(builder.or(builder.greaterThan(date, afterDate),
+                    builder.and(builder.equal(date, afterDate), builder.or(builder.greaterThan(startTime, afterTime),
+                            builder.and(builder.equal(startTime, afterTime), builder.greaterThan(id, afterId))))));
+        }
+        query.select(reservation)
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(builder.asc(date), builder.asc(startTime), builder.asc(id));
+        return entityManager.createQuery(query);
+    }
+}
@@ -0,0 +1,27 @@
+package com.zenika.meetingplanner.repository;
+
+import com.zenika.meetingplanner.model.ReservationListing;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReservationListingRepository extends JpaRepository<ReservationListing, Long>, ReservationListingQueries {
+
+    /**
+     * Copy the new capacity and equipments of a room into its reservations
+     * @param roomName The name of the room
+     * @param roomCapacity The capacity of the room
+     * @param roomEquipments The equipments of the room, see {@link com.zenika.meetingplanner.helper.Mapper#EquipmentDtosToJson}
+     * @return The number of updated reservations
+     */
+    @Modifying
+    @Query("""
+            update ReservationListing r set r.roomCapacity = :roomCapacity, r.roomEquipments = :roomEquipments
+            where r.roomName = :roomName
+            """)
+    int updateRoom(@Param("roomName") String roomName, @Param("roomCapacity") int roomCapacity,
+            @Param("roomEquipments") String roomEquipments);
+}
@@ -1,9 +1,69 @@
 package com.zenika.meetingplanner.repository;
 
 import com.zenika.meetingplanner.model.Reservation;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+
+    /**
+     * Get all reservations with their room and its equipments in a single query
+     * @return List of Reservation
+     */
+    @Override
+    @EntityGraph(attributePaths = {"room", "room.equipments"})
+    List<Reservation> findAll();
+
+    /**
+     * Get the reservations of a day
+     * @param date The date of the reservations
+     * @return List of Reservation
+     */
+    List<Reservation> findByDate(LocalDate date);
+
+    /**
+     * Number and highest id of the reservations of a day, which change with every reservation
+     * created or archived on that day
+     */
+    interface DayWatermark {
+        LocalDate getDate();
+
+        long getCount();
+
+        long getMaxId();
+    }
+
+    /**
+     * Get the watermark of each day of a date range holding reservations, read from the date index
+     * @param from The first date
+     * @param to The last date
+     * @return List of DayWatermark, days without reservation being left out
+     */
+    @Query("select r.date as date, count(r) as count, max(r.id) as maxId from Reservation r "
+            + "where r.date between :from and :to group by r.date")
+    List<DayWatermark> findDayWatermarks(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Get the date of the oldest live reservation
+     * @return The date, null if there is no reservation
+     */
+    @Query("select min(r.date) from Reservation r")
+    LocalDate findFirstDate();
+
+    /**
+     * Delete the reservations of a day, once copied into the archive
+     * @param date The date of the reservations
+     * @return The number of deleted reservations
+     */
+    @Modifying
+    @Query("delete from Reservation r where r.date = :date")
+    int deleteByDate(@Param("date") LocalDate date);
 }
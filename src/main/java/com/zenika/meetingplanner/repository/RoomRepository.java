@@ -1,9 +1,56 @@
 package com.zenika.meetingplanner.repository;
 
 import com.zenika.meetingplanner.model.Room;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface RoomRepository extends JpaRepository<Room, String> {
+
+    /**
+     * Name of the cache of the room catalog
+     */
+    String CACHE = "rooms";
+
+    /**
+     * Get all rooms with their equipments in a single query, then from the cache until a room changes
+     * @return List of Room, shared by the callers and not to be modified
+     */
+    @Override
+    @Cacheable(CACHE)
+    @EntityGraph(attributePaths = "equipments")
+    List<Room> findAll();
+
+    @Override
+    @CacheEvict(cacheNames = CACHE, allEntries = true)
+    <S extends Room> S save(S room);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE, allEntries = true)
+    <S extends Room> S saveAndFlush(S room);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE, allEntries = true)
+    <S extends Room> List<S> saveAll(Iterable<S> rooms);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE, allEntries = true)
+    void delete(Room room);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE, allEntries = true)
+    void deleteById(String name);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE, allEntries = true)
+    void deleteAll(Iterable<? extends Room> rooms);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE, allEntries = true)
+    void deleteAll();
 }
@@ -0,0 +1,19 @@
+package com.zenika.meetingplanner.request;
+
+import lombok.Data;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+@Data
+public class ListReservationsRequest {
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+    private String room;
+    private String reservedBy;
+    private String cursor;
+    private Integer limit;
+}
@@ -2,6 +2,8 @@ package com.zenika.meetingplanner.request;
 
 import lombok.Data;
 
+import org.springframework.format.annotation.DateTimeFormat;
+
 import java.time.LocalDate;
 import java.time.LocalTime;
 
@@ -9,7 +11,11 @@ import java.time.LocalTime;
 public class StoreReservationRequest {
     private int attendees;
     private String type;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     private LocalDate date;
+    @DateTimeFormat(pattern = "HH:mm")
     private LocalTime startTime;
+    @DateTimeFormat(pattern = "HH:mm")
+    private LocalTime endTime;
     private String reservedBy;
 }
@@ -0,0 +1,94 @@
+package com.zenika.meetingplanner.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Meters of the booking pipelines, exposed through the actuator metrics and prometheus endpoints.
+ * Stage timers publish their percentiles, see management.metrics.distribution in application.properties.
+ */
+@Component
+public class BookingMetrics {
+
+    public static final String STORE = "store";
+    public static final String BATCH = "batch";
+
+    private final MeterRegistry registry;
+
+    /**
+     * Register the occupancy gauges, aggregated over the rooms so that the number of series does not grow
+     * with the catalog
+     * @param registry The meter registry
+     * @param occupancyIndex The occupancy index
+     */
+    public BookingMetrics(MeterRegistry registry, RoomOccupancyIndex occupancyIndex) {
+        this.registry = registry;
+        Gauge.builder("occupancy.index.rooms", occupancyIndex, RoomOccupancyIndex::roomCount)
+                .description("Rooms held by the occupancy index")
+                .register(registry);
+        Gauge.builder("occupancy.index.room.days", occupancyIndex, RoomOccupancyIndex::roomDayCount)
+                .description("Room and day interval maps held by the occupancy index")
+                .register(registry);
+        Gauge.builder("occupancy.index.reservations", occupancyIndex, RoomOccupancyIndex::reservationCount)
+                .description("Reservations held by the occupancy index")
+                .register(registry);
+        Gauge.builder("occupancy.index.reservations.max", occupancyIndex, RoomOccupancyIndex::maxRoomReservationCount)
+                .description("Reservations of the busiest room held by the occupancy index")
+                .register(registry);
+    }
+
+    /**
+     * Time a stage of a booking pipeline
+     * @param pipeline The pipeline, store or batch
+     * @param stage The stage of the pipeline
+     * @param action The stage
+     * @return The result of the stage
+     */
+    public <T> T time(String pipeline, String stage, Supplier<T> action) {
+        return timer(pipeline, stage).record(action);
+    }
+
+    /**
+     * Start timing a stage that cannot be wrapped in a supplier
+     * @return The started sample
+     */
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * Stop timing a stage
+     * @param sample The sample returned by {@link #start()}
+     * @param pipeline The pipeline, store or batch
+     * @param stage The stage of the pipeline
+     */
+    public void stop(Timer.Sample sample, String pipeline, String stage) {
+        sample.stop(timer(pipeline, stage));
+    }
+
+    /**
+     * Count a rejected reservation
+     * @param reason The reason of the rejection
+     */
+    public void reject(String reason) {
+        Counter.builder("reservation.rejections")
+                .description("Reservations rejected, by reason")
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    private Timer timer(String pipeline, String stage) {
+        return Timer.builder("reservation.pipeline")
+                .description("Duration of each stage of the booking pipelines")
+                .tag("pipeline", pipeline)
+                .tag("stage", stage)
+                .register(registry);
+    }
+}
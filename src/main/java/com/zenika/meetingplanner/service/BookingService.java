@@ -0,0 +1,176 @@
+package com.zenika.meetingplanner.service;
+
+import com.zenika.meetingplanner.helper.StripedLock;
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.model.Room;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Service
+public class BookingService {
+
+    /**
+     * Largest batch of meetings accepted by the APIs
+     */
+    public static final int MAX_BULK_SIZE = 1000;
+
+    private static final int LOCK_STRIPES = 256;
+    private static final int MAX_PLAN_ATTEMPTS = 3;
+
+    private final RoomService roomService;
+    private final ReservationService reservationService;
+    private final MeetingPlanner meetingPlanner;
+    private final BookingMetrics bookingMetrics;
+    private final StripedLock roomDayLocks = new StripedLock(LOCK_STRIPES);
+
+    public BookingService(RoomService roomService, ReservationService reservationService,
+            MeetingPlanner meetingPlanner, BookingMetrics bookingMetrics) {
+        this.roomService = roomService;
+        this.reservationService = reservationService;
+        this.meetingPlanner = meetingPlanner;
+        this.bookingMetrics = bookingMetrics;
+    }
+
+    /**
+     * Book the best fitting room for a reservation.
+     * Each candidate room is checked again and saved while holding the lock of its room and day,
+     * when it has been taken in the meantime, by this instance or another one, the next best candidate is tried.
+     * @param reservation The reservation to book, without room
+     * @return The saved reservation, null if no room is available
+     */
+    public Reservation book(Reservation reservation) {
+        List<Room> candidates = bookingMetrics.time(BookingMetrics.STORE, "room_search",
+                () -> roomService.getAvailableRooms(reservation.getAttendees(), reservation.getType(),
+                        reservation.getDate(), reservation.getStartTime(), reservation.getEndTime()));
+        for (Room room : candidates) {
+            Reservation savedReservation = tryBook(reservation, room);
+            if (savedReservation != null)
+                return savedReservation;
+        }
+        return null;
+    }
+
+    /**
+     * Book a batch of meetings at once.
+     * The catalog is loaded once and the rooms are assigned in memory. Only the locks of the rooms and days
+     * chosen by the plan are then taken, the plan is checked again under them and the placed meetings are
+     * saved in a single batched transaction. When a booking of this instance has taken one of the rooms
+     * since the planning, or another instance has claimed one of the slots, the batch is planned again;
+     * the last attempt plans under the locks of every room and day involved so that it cannot be overtaken.
+     * @param meetings The meetings to book, without room
+     * @param mode The planning mode
+     * @return The saved reservations and the meetings that could not be placed
+     */
+    public MeetingPlanner.Plan bookAll(List<Reservation> meetings, MeetingPlanner.Mode mode) {
+        return bookAll(meetings, mode, plan -> {});
+    }
+
+    /**
+     * Same as {@link #bookAll(List, MeetingPlanner.Mode)}, handing the final plan to a last step
+     * run in the transaction saving the reservations: when the step fails nothing is booked
+     * @param meetings The meetings to book, without room
+     * @param mode The planning mode
+     * @param inTransaction The last step, given the saved reservations and the meetings that could not be placed
+     * @return The saved reservations and the meetings that could not be placed
+     */
+    public MeetingPlanner.Plan bookAll(List<Reservation> meetings, MeetingPlanner.Mode mode,
+            Consumer<MeetingPlanner.Plan> inTransaction) {
+        List<Room> rooms = bookingMetrics.time(BookingMetrics.BATCH, "catalog", roomService::findAll);
+        Set<LocalDate> dates = meetings.stream().map(Reservation::getDate).collect(Collectors.toSet());
+        for (int attempt = 1; ; attempt++) {
+            List<Lock> planningLocks = attempt >= MAX_PLAN_ATTEMPTS ? roomDayLocks.getAll(roomDays(rooms, dates)) : List.of();
+            lockAll(planningLocks);
+            try {
+                MeetingPlanner.Plan plan = bookingMetrics.time(BookingMetrics.BATCH, "planning",
+                        () -> meetingPlanner.plan(meetings, rooms, mode));
+                List<Lock> locks = roomDayLocks.getAll(plan.placed().stream()
+                        .<List<?>>map(reservation -> List.of(reservation.getRoom().getName(), reservation.getDate()))
+                        .toList());
+                lockAll(locks);
+                try {
+                    if (!isStillAvailable(plan.placed()))
+                        continue;
+                    List<Reservation> saved = bookingMetrics.time(BookingMetrics.BATCH, "persistence",
+                            () -> reservationService.saveAll(plan.placed(),
+                                    savedReservations -> inTransaction.accept(new MeetingPlanner.Plan(savedReservations, plan.unplaced()))));
+                    plan.unplaced().forEach(unplaced -> bookingMetrics.reject(unplaced.reason().name()));
+                    return new MeetingPlanner.Plan(saved, plan.unplaced());
+                } catch (DataIntegrityViolationException e) {
+                    if (attempt >= MAX_PLAN_ATTEMPTS)
+                        throw e;
+                    reservationService.refreshOccupancy(dates);
+                } finally {
+                    unlockAll(locks);
+                }
+            } finally {
+                unlockAll(planningLocks);
+            }
+        }
+    }
+
+    /**
+     * Check that the rooms of a plan have not been taken since the planning, the plan itself keeping
+     * its meetings apart
+     * @param placed The placed meetings, with their room
+     * @return True if every room is still available
+     */
+    private boolean isStillAvailable(List<Reservation> placed) {
+        for (Reservation reservation : placed) {
+            if (!roomService.isRoomAvailable(reservation.getRoom(), reservation.getDate(), reservation.getStartTime(),
+                    reservation.getEndTime()))
+                return false;
+        }
+        return true;
+    }
+
+    private static List<List<?>> roomDays(List<Room> rooms, Set<LocalDate> dates) {
+        List<List<?>> roomDays = new ArrayList<>();
+        for (Room room : rooms) {
+            for (LocalDate date : dates) {
+                roomDays.add(List.of(room.getName(), date));
+            }
+        }
+        return roomDays;
+    }
+
+    private static void lockAll(List<Lock> locks) {
+        locks.forEach(Lock::lock);
+    }
+
+    private static void unlockAll(List<Lock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    /**
+     * Book a reservation in a given room if the room is still available
+     * @param reservation The reservation to book
+     * @param room The room to book
+     * @return The saved reservation, null if the room is no longer available
+     */
+    private Reservation tryBook(Reservation reservation, Room room) {
+        Lock lock = roomDayLocks.get(room.getName(), reservation.getDate());
+        lock.lock();
+        try {
+            if (!roomService.isRoomAvailable(room, reservation.getDate(), reservation.getStartTime(),
+                    reservation.getEndTime()))
+                return null;
+            return bookingMetrics.time(BookingMetrics.STORE, "persistence",
+                    () -> reservationService.save(reservation.toBuilder().room(room).build()));
+        } catch (DataIntegrityViolationException e) {
+            reservationService.refreshOccupancy(List.of(reservation.getDate()));
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.zenika.meetingplanner.service;
+
+import com.zenika.meetingplanner.model.Room;
+import com.zenika.meetingplanner.repository.ReservationRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Free/busy grid of every room over a date range, read from the occupancy index.
+ * A slot is busy when a one-hour meeting starting at its hour would conflict with a reservation,
+ * cleanup buffers included.
+ * The version of a range is read from the database, the number and highest id of the reservations of each day,
+ * so every instance derives the same ETag. A day whose watermark changed since this instance last saw it is
+ * reloaded into the index before its grid is computed, including the bookings of the other instances.
+ */
+@Service
+public class CalendarService {
+
+    public static final int MAX_DAYS = 62;
+    public static final int SLOTS = ReservationValidator.LAST_HOUR - ReservationValidator.FIRST_HOUR + 1;
+
+    /**
+     * Busy slots of a room
+     * @param room The room
+     * @param busySlots One bitmask per date of the range, bit n being set when the slot starting at FIRST_HOUR + n is busy
+     */
+    public record RoomCalendar(Room room, int[] busySlots) {
+    }
+
+    public record Calendar(LocalDate from, LocalDate to, List<RoomCalendar> rooms) {
+    }
+
+    /**
+     * Version of the calendar of a date range, changing whenever a reservation of the range or a room changes
+     * @param etag The entity tag of the range, the same on every instance
+     * @param lastModified The time this instance first saw the latest change, in epoch milliseconds
+     */
+    public record Version(String etag, long lastModified) {
+    }
+
+    /**
+     * Watermark of a day and the time this instance first saw it
+     */
+    private record SeenDay(long count, long maxId, long at) {
+    }
+
+    /**
+     * Fingerprint of the catalog and the time this instance first saw it
+     */
+    private record SeenCatalog(long fingerprint, long at) {
+    }
+
+    private final RoomService roomService;
+    private final ReservationService reservationService;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final Map<LocalDate, SeenDay> days = new ConcurrentHashMap<>();
+    /**
+     * Days whose watermark changed since the index was last reloaded by the calendar
+     */
+    private final Set<LocalDate> staleDays = ConcurrentHashMap.newKeySet();
+    private volatile SeenCatalog catalog;
+
+    public CalendarService(RoomService roomService, ReservationService reservationService,
+                           RoomOccupancyIndex occupancyIndex) {
+        this.roomService = roomService;
+        this.reservationService = reservationService;
+        this.occupancyIndex = occupancyIndex;
+    }
+
+    /**
+     * Get the version of the calendar of a date range from the watermarks of its days, without computing it
+     * @param from The first date
+     * @param to The last date
+     * @return The version
+     */
+    public Version getVersion(LocalDate from, LocalDate to) {
+        long now = System.currentTimeMillis();
+        Map<LocalDate, ReservationRepository.DayWatermark> watermarks = reservationService.findDayWatermarks(from, to)
+                .stream().collect(Collectors.toMap(ReservationRepository.DayWatermark::getDate, Function.identity()));
+        long fingerprint = roomService.getCatalogFingerprint();
+        SeenCatalog seenCatalog = catalog;
+        if (seenCatalog == null || seenCatalog.fingerprint() != fingerprint) {
+            seenCatalog = new SeenCatalog(fingerprint, now);
+            catalog = seenCatalog;
+        }
+
+        long hash = fingerprint;
+        long lastModified = seenCatalog.at();
+        for (LocalDate date : from.datesUntil(to.plusDays(1)).toList()) {
+            ReservationRepository.DayWatermark watermark = watermarks.get(date);
+            long count = watermark != null ? watermark.getCount() : 0;
+            long maxId = watermark != null ? watermark.getMaxId() : 0;
+            SeenDay seen = days.compute(date, (key, previous) -> {
+                if (previous != null && previous.count() == count && previous.maxId() == maxId)
+                    return previous;
+                staleDays.add(key);
+                return new SeenDay(count, maxId, now);
+            });
+            hash = 31 * (31 * hash + count) + maxId;
+            lastModified = Math.max(lastModified, seen.at());
+        }
+        return new Version("calendar-" + from + "-" + to + "-" + Long.toHexString(hash), lastModified);
+    }
+
+    /**
+     * Get the free/busy grid of every room over a date range
+     * @param from The first date
+     * @param to The last date, at most {@link #MAX_DAYS} days after the first one
+     * @return The calendar, rooms ordered by name
+     */
+    public Calendar getCalendar(LocalDate from, LocalDate to) {
+        List<LocalDate> dates = from.datesUntil(to.plusDays(1)).toList();
+        List<LocalDate> stale = dates.stream().filter(staleDays::remove).toList();
+        if (!stale.isEmpty()) {
+            try {
+                reservationService.refreshOccupancy(stale);
+            } catch (RuntimeException e) {
+                staleDays.addAll(stale);
+                throw e;
+            }
+        }
+        List<Room> rooms = roomService.findAll().stream().sorted(Comparator.comparing(Room::getName)).toList();
+        List<RoomCalendar> calendars = new ArrayList<>(rooms.size());
+        for (Room room : rooms) {
+            int[] busySlots = new int[dates.size()];
+            for (int day = 0; day < dates.size(); day++) {
+                for (int slot = 0; slot < SLOTS; slot++) {
+                    LocalTime startTime = LocalTime.of(ReservationValidator.FIRST_HOUR + slot, 0);
+                    if (!occupancyIndex.isAvailable(room.getName(), dates.get(day), startTime))
+                        busySlots[day] |= 1 << slot;
+                }
+            }
+            calendars.add(new RoomCalendar(room, busySlots));
+        }
+        return new Calendar(from, to, calendars);
+    }
+}
@@ -0,0 +1,138 @@
+package com.zenika.meetingplanner.service;
+
+import com.zenika.meetingplanner.model.IdempotencyRecord;
+import com.zenika.meetingplanner.repository.IdempotencyRecordRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Idempotency keys of the bulk requests. A key is claimed with a token before its request is processed,
+ * the result is then written under this token in the transaction booking the request, so that a key is
+ * either completed with its reservations or left without result and nothing booked.
+ * A claim left without result past the claim timeout, by a crashed instance, is taken over by the next retry.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final Duration claimTimeout;
+    private final Duration retention;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+            @Value("${meetingplanner.idempotency.claim-timeout:2m}") Duration claimTimeout,
+            @Value("${meetingplanner.idempotency.retention:1d}") Duration retention) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.claimTimeout = claimTimeout;
+        this.retention = retention;
+    }
+
+    /**
+     * Claim an idempotency key for a request
+     * @param key The idempotency key
+     * @param requestHash The hash of the request, see {@link #hash(String)}
+     * @param token The token of the request, unique to this attempt
+     * @return null if the key is claimed and the request has to be processed, the record of the key otherwise
+     */
+    public IdempotencyRecord claim(String key, String requestHash, String token) {
+        IdempotencyRecord existing = idempotencyRecordRepository.findById(key).orElse(null);
+        if (existing != null)
+            return takeOverIfStale(existing, requestHash, token);
+        try {
+            idempotencyRecordRepository.saveAndFlush(IdempotencyRecord.builder()
+                    .key(key)
+                    .requestHash(requestHash)
+                    .createdAt(Instant.now())
+                    .claimedBy(token)
+                    .build());
+            return null;
+        } catch (DataIntegrityViolationException e) {
+            return idempotencyRecordRepository.findById(key).orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Write the result of a request processed under a claimed key.
+     * Must be called in the transaction booking the request.
+     * @param key The idempotency key
+     * @param token The token given to {@link #claim}
+     * @param status The HTTP status of the result
+     * @param responseBody The body of the result
+     * @throws ConcurrencyFailureException if the claim has been taken over, the transaction must be rolled back
+     */
+    @Transactional
+    public void complete(String key, String token, int status, String responseBody) {
+        if (idempotencyRecordRepository.complete(key, token, status, responseBody) == 0)
+            throw new ConcurrencyFailureException("Idempotency key " + key + " is no longer claimed by this request");
+    }
+
+    /**
+     * Release a claimed key when its request failed, so that it can be retried
+     * @param key The idempotency key
+     * @param token The token given to {@link #claim}
+     */
+    @Transactional
+    public void release(String key, String token) {
+        idempotencyRecordRepository.release(key, token);
+    }
+
+    /**
+     * Delete the keys older than the retention, a retry sent later is processed as a new request
+     * @return The number of deleted keys
+     */
+    @Scheduled(initialDelayString = "${meetingplanner.idempotency.purge-interval:PT1H}",
+            fixedDelayString = "${meetingplanner.idempotency.purge-interval:PT1H}")
+    @Transactional
+    public int purge() {
+        int purged = idempotencyRecordRepository.deleteByCreatedAtBefore(Instant.now().minus(retention));
+        if (purged > 0)
+            LOGGER.info("Purged {} idempotency keys older than {}", purged, retention);
+        return purged;
+    }
+
+    /**
+     * Hash a request, to tell a retry from another request reusing the same key
+     * @param request The canonical form of the request
+     * @return The SHA-256 of the request, in hexadecimal
+     */
+    public static String hash(String request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(request.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Take over the claim of a key when it has been left without result for longer than the claim timeout
+     * @param existing The record of the key
+     * @param requestHash The hash of the request
+     * @param token The token of the request
+     * @return null if the claim is taken over, the record of the key otherwise
+     */
+    private IdempotencyRecord takeOverIfStale(IdempotencyRecord existing, String requestHash, String token) {
+        if (existing.getStatus() != null || !existing.getRequestHash().equals(requestHash)
+                || existing.getCreatedAt() == null || existing.getCreatedAt().plus(claimTimeout).isAfter(Instant.now()))
+            return existing;
+        if (idempotencyRecordRepository.takeOver(existing.getKey(), existing.getClaimedBy(), token, Instant.now()) == 0)
+            return idempotencyRecordRepository.findById(existing.getKey()).orElse(existing);
+        LOGGER.warn("Took over the stale claim of idempotency key {}", existing.getKey());
+        return null;
+    }
+}
@@ -0,0 +1,228 @@
+package com.zenika.meetingplanner.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.zenika.meetingplanner.helper.JsonReader;
+import com.zenika.meetingplanner.helper.Mapper;
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.request.StoreReservationRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Import a weekly meeting plan from a json array or newline delimited json stream.
+ * Entries are parsed one at a time and booked in bounded chunks, so the memory used does not
+ * depend on the size of the plan.
+ */
+@Service
+public class MeetingImportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MeetingImportService.class);
+
+    public static final int MAX_CHUNK_SIZE = 5000;
+
+    public enum Status {
+        BOOKED,
+        UNPLACED,
+        INVALID,
+        /**
+         * The chunk of the entry could not be saved, nothing of it is booked and it can be sent again
+         */
+        FAILED
+    }
+
+    /**
+     * Outcome of one entry of the plan
+     * @param line The position of the entry in the plan, from 1
+     * @param meeting The meeting read from the entry, null if the entry is invalid
+     * @param reservation The saved reservation, when booked
+     * @param reason The reason why the meeting could not be placed, when unplaced
+     * @param rejection The reason why the entry is invalid, when invalid
+     * @param failed true when the chunk of the entry could not be saved
+     */
+    public record Entry(int line, Reservation meeting, Reservation reservation, MeetingPlanner.Reason reason,
+                        ReservationValidator.Rejection rejection, boolean failed) {
+
+        public Status status() {
+            if (failed)
+                return Status.FAILED;
+            if (reservation != null)
+                return Status.BOOKED;
+            return reason != null ? Status.UNPLACED : Status.INVALID;
+        }
+    }
+
+    public record Progress(int processed, int booked, int unplaced, int invalid, int failed) {
+    }
+
+    public interface Listener {
+        /**
+         * Called for each entry: invalid entries at once, valid ones when their chunk is booked
+         * @param entry The outcome of the entry
+         */
+        void onEntry(Entry entry);
+
+        /**
+         * Called once each chunk is booked, or has failed
+         * @param progress The counters since the start of the import
+         */
+        void onProgress(Progress progress);
+    }
+
+    private final BookingService bookingService;
+    private final ReservationValidator reservationValidator;
+    private final BookingMetrics bookingMetrics;
+
+    public MeetingImportService(BookingService bookingService, ReservationValidator reservationValidator,
+                                BookingMetrics bookingMetrics) {
+        this.bookingService = bookingService;
+        this.reservationValidator = reservationValidator;
+        this.bookingMetrics = bookingMetrics;
+    }
+
+    /**
+     * Import a meeting plan, each entry holding meeting, time, type, attendees and optionally endTime, date and reservedBy
+     * @param inputStream The plan, as a json array or newline delimited json
+     * @param mode The planning mode applied to each chunk
+     * @param chunkSize The number of valid meetings booked at once
+     * @param defaultDate The date of the entries without date
+     * @param listener The listener notified of each entry and chunk
+     * @return The final counters
+     * @throws IOException if the plan cannot be read or is not valid json
+     */
+    public Progress importMeetings(InputStream inputStream, MeetingPlanner.Mode mode, int chunkSize,
+                                   LocalDate defaultDate, Listener listener) throws IOException {
+        if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE)
+            throw new IllegalArgumentException("La taille de lot doit être comprise entre 1 et " + MAX_CHUNK_SIZE);
+
+        Run run = new Run(mode, chunkSize, defaultDate, listener);
+        JsonReader.forEach(inputStream, run::accept);
+        run.flush();
+        return run.progress();
+    }
+
+    /**
+     * Read a reservation request from an entry of the plan
+     * @param node The entry
+     * @param defaultDate The date of the entry when it has none
+     * @return The request, null if a date or time cannot be parsed
+     */
+    private static StoreReservationRequest toRequest(JsonNode node, LocalDate defaultDate) {
+        StoreReservationRequest request = new StoreReservationRequest();
+        try {
+            request.setAttendees(node.path("attendees").asInt());
+            request.setType(node.hasNonNull("type") ? node.get("type").asText() : null);
+            request.setDate(node.hasNonNull("date") ? LocalDate.parse(node.get("date").asText()) : defaultDate);
+            request.setStartTime(node.hasNonNull("time") ? LocalTime.parse(node.get("time").asText()) : null);
+            request.setEndTime(node.hasNonNull("endTime") ? LocalTime.parse(node.get("endTime").asText()) : null);
+            request.setReservedBy(node.hasNonNull("reservedBy") ? node.get("reservedBy").asText() : null);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+        return request;
+    }
+
+    /**
+     * State of one import: the pending chunk and the counters
+     */
+    private final class Run {
+        private final MeetingPlanner.Mode mode;
+        private final int chunkSize;
+        private final LocalDate defaultDate;
+        private final Listener listener;
+        private final List<Reservation> chunk;
+        private final List<Integer> lines;
+        private int processed;
+        private int booked;
+        private int unplaced;
+        private int invalid;
+        private int failed;
+
+        private Run(MeetingPlanner.Mode mode, int chunkSize, LocalDate defaultDate, Listener listener) {
+            this.mode = mode;
+            this.chunkSize = chunkSize;
+            this.defaultDate = defaultDate;
+            this.listener = listener;
+            this.chunk = new ArrayList<>(chunkSize);
+            this.lines = new ArrayList<>(chunkSize);
+        }
+
+        private void accept(JsonNode node) {
+            int line = processed + chunk.size() + 1;
+            StoreReservationRequest request = toRequest(node, defaultDate);
+            ReservationValidator.Rejection rejection = request == null
+                    ? ReservationValidator.Rejection.INVALID_REQUEST
+                    : reservationValidator.validate(request);
+            if (rejection != null) {
+                bookingMetrics.reject(rejection.name());
+                invalid++;
+                processed++;
+                listener.onEntry(new Entry(line, null, null, null, rejection, false));
+                return;
+            }
+
+            Reservation meeting = Mapper.StoreReservationRequestToReservation(request);
+            meeting.setReservationNumber(node.path("meeting").asInt(line));
+            chunk.add(meeting);
+            lines.add(line);
+            if (chunk.size() == chunkSize)
+                flush();
+        }
+
+        /**
+         * Book the pending chunk and report its entries in the order of the plan.
+         * A chunk that cannot be saved is rolled back as a whole, its entries are reported as failed
+         * and the import goes on with the next chunk.
+         */
+        private void flush() {
+            if (chunk.isEmpty())
+                return;
+            MeetingPlanner.Plan plan;
+            try {
+                plan = bookingService.bookAll(chunk, mode);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not book the chunk of {} meetings from line {}", chunk.size(), lines.get(0), e);
+                for (int i = 0; i < chunk.size(); i++) {
+                    listener.onEntry(new Entry(lines.get(i), chunk.get(i), null, null, null, true));
+                    failed++;
+                    processed++;
+                }
+                chunk.clear();
+                lines.clear();
+                listener.onProgress(progress());
+                return;
+            }
+            Iterator<Reservation> placed = plan.placed().iterator();
+            Iterator<MeetingPlanner.Unplaced> unplacedMeetings = plan.unplaced().iterator();
+            MeetingPlanner.Unplaced nextUnplaced = unplacedMeetings.hasNext() ? unplacedMeetings.next() : null;
+            for (int i = 0; i < chunk.size(); i++) {
+                Reservation meeting = chunk.get(i);
+                if (nextUnplaced != null && nextUnplaced.meeting() == meeting) {
+                    listener.onEntry(new Entry(lines.get(i), meeting, null, nextUnplaced.reason(), null, false));
+                    nextUnplaced = unplacedMeetings.hasNext() ? unplacedMeetings.next() : null;
+                    unplaced++;
+                } else {
+                    listener.onEntry(new Entry(lines.get(i), meeting, placed.next(), null, null, false));
+                    booked++;
+                }
+                processed++;
+            }
+            chunk.clear();
+            lines.clear();
+            listener.onProgress(progress());
+        }
+
+        private Progress progress() {
+            return new Progress(processed, booked, unplaced, invalid, failed);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.zenika.meetingplanner.service;
+
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.model.Room;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assign rooms to a batch of meetings in memory, against a single load of the catalog
+ * and the current content of the occupancy index.
+ */
+@Component
+public class MeetingPlanner {
+
+    public enum Mode {
+        /**
+         * Meetings take the best fitting free room in the order they are given
+         */
+        GREEDY,
+        /**
+         * Best effort to place more meetings: the most constrained meetings are placed first and, when a meeting
+         * finds no free room, a single placed meeting may be moved to another free room to make space.
+         * This single-swap heuristic does not guarantee the largest possible number of placed meetings.
+         */
+        MAXIMIZE;
+
+        /**
+         * Parse a planning mode
+         * @param mode The name of the mode, case insensitive
+         * @return The mode, null if the name is unknown
+         */
+        public static Mode parse(String mode) {
+            for (Mode value : values()) {
+                if (value.name().equalsIgnoreCase(mode))
+                    return value;
+            }
+            return null;
+        }
+    }
+
+    public enum Reason {
+        NO_ROOM_LARGE_ENOUGH,
+        NO_ROOM_WITH_EQUIPMENT,
+        ALL_ROOMS_BUSY
+    }
+
+    public record Unplaced(Reservation meeting, Reason reason) {
+    }
+
+    public record Plan(List<Reservation> placed, List<Unplaced> unplaced) {
+    }
+
+    private final RoomService roomService;
+    private final RoomOccupancyIndex occupancyIndex;
+
+    public MeetingPlanner(RoomService roomService, RoomOccupancyIndex occupancyIndex) {
+        this.roomService = roomService;
+        this.occupancyIndex = occupancyIndex;
+    }
+
+    /**
+     * Plan a batch of meetings
+     * @param meetings The meetings, without room
+     * @param rooms The catalog of rooms
+     * @param mode The planning mode
+     * @return The placed meetings in the given order, with their room, and the meetings that could not be placed
+     */
+    public Plan plan(List<Reservation> meetings, Collection<Room> rooms, Mode mode) {
+        List<Room> catalog = rooms.stream().sorted(RoomService.BEST_FIT).toList();
+        Map<Reservation, List<Room>> eligibleRooms = new IdentityHashMap<>();
+        for (Reservation meeting : meetings) {
+            List<String> requiredEquipments = roomService.getRequiredEquipment(meeting.getType());
+            eligibleRooms.put(meeting, catalog.stream()
+                    .filter(room -> roomService.checkRoomCapacity(room.getMaxCapacity(), meeting.getAttendees()))
+                    .filter(room -> roomService.hasRequiredEquipment(room.getEquipments(), requiredEquipments))
+                    .toList());
+        }
+
+        List<Reservation> order = new ArrayList<>(meetings);
+        if (mode == Mode.MAXIMIZE)
+            order.sort(Comparator.comparingInt((Reservation meeting) -> eligibleRooms.get(meeting).size())
+                    .thenComparing(Reservation::getDate)
+                    .thenComparing(Reservation::getStartTime));
+
+        Occupancy occupancy = new Occupancy();
+        for (Reservation meeting : order) {
+            Room room = occupancy.firstFreeRoom(meeting, eligibleRooms.get(meeting), null);
+            if (room == null && mode == Mode.MAXIMIZE)
+                room = occupancy.makeSpace(meeting, eligibleRooms);
+            if (room != null)
+                occupancy.assign(meeting, room);
+        }
+
+        List<Reservation> placed = new ArrayList<>();
+        List<Unplaced> unplaced = new ArrayList<>();
+        for (Reservation meeting : meetings) {
+            Room room = occupancy.assignments.get(meeting);
+            if (room != null)
+                placed.add(meeting.toBuilder().room(room).build());
+            else
+                unplaced.add(new Unplaced(meeting, reasonOf(meeting, catalog, eligibleRooms.get(meeting))));
+        }
+        return new Plan(placed, unplaced);
+    }
+
+    /**
+     * Explain why a meeting could not be placed
+     * @param meeting The meeting
+     * @param catalog The catalog of rooms
+     * @param eligibleRooms The rooms large enough and equipped for the meeting
+     * @return The reason
+     */
+    private Reason reasonOf(Reservation meeting, List<Room> catalog, List<Room> eligibleRooms) {
+        if (!eligibleRooms.isEmpty())
+            return Reason.ALL_ROOMS_BUSY;
+        boolean largeEnough = catalog.stream()
+                .anyMatch(room -> roomService.checkRoomCapacity(room.getMaxCapacity(), meeting.getAttendees()));
+        return largeEnough ? Reason.NO_ROOM_WITH_EQUIPMENT : Reason.NO_ROOM_LARGE_ENOUGH;
+    }
+
+    /**
+     * Occupancy of the rooms while planning: the reservations of the index plus the meetings assigned so far
+     */
+    private class Occupancy {
+
+        private final Map<Reservation, Room> assignments = new IdentityHashMap<>();
+        private final Map<List<Object>, List<Reservation>> assignedByRoomDay = new HashMap<>();
+
+        private Room firstFreeRoom(Reservation meeting, List<Room> rooms, Room excluded) {
+            for (Room room : rooms) {
+                if (room != excluded && isFree(room, meeting))
+                    return room;
+            }
+            return null;
+        }
+
+        /**
+         * Free a room for a meeting by moving the single planned meeting blocking it to another room
+         * @param meeting The meeting to place
+         * @param eligibleRooms The eligible rooms of every meeting
+         * @return The room freed for the meeting, null if none could be freed
+         */
+        private Room makeSpace(Reservation meeting, Map<Reservation, List<Room>> eligibleRooms) {
+            for (Room room : eligibleRooms.get(meeting)) {
+                if (!isIndexFree(room, meeting))
+                    continue;
+                List<Reservation> blocking = assigned(room, meeting.getDate()).stream()
+                        .filter(other -> conflicts(other, meeting))
+                        .toList();
+                if (blocking.size() != 1)
+                    continue;
+                Reservation other = blocking.get(0);
+                unassign(other);
+                Room alternative = firstFreeRoom(other, eligibleRooms.get(other), room);
+                if (alternative != null) {
+                    assign(other, alternative);
+                    return room;
+                }
+                assign(other, room);
+            }
+            return null;
+        }
+
+        private void assign(Reservation meeting, Room room) {
+            assignments.put(meeting, room);
+            assigned(room, meeting.getDate()).add(meeting);
+        }
+
+        private void unassign(Reservation meeting) {
+            Room room = assignments.remove(meeting);
+            assigned(room, meeting.getDate()).removeIf(assigned -> assigned == meeting);
+        }
+
+        private List<Reservation> assigned(Room room, LocalDate date) {
+            return assignedByRoomDay.computeIfAbsent(List.of(room.getName(), date), key -> new ArrayList<>());
+        }
+
+        /**
+         * Check if a room is free for a meeting, against the stored reservations and the meetings assigned so far
+         * @param room The room
+         * @param meeting The meeting
+         * @return True if the meeting can be assigned to the room
+         */
+        private boolean isFree(Room room, Reservation meeting) {
+            if (!isIndexFree(room, meeting))
+                return false;
+            for (Reservation other : assigned(room, meeting.getDate())) {
+                if (conflicts(other, meeting))
+                    return false;
+            }
+            return true;
+        }
+
+        private boolean isIndexFree(Room room, Reservation meeting) {
+            return occupancyIndex.isAvailable(room.getName(), meeting.getDate(), meeting.getStartTime(),
+                    meeting.getEndTime());
+        }
+
+        private boolean conflicts(Reservation meeting, Reservation other) {
+            return occupancyIndex.conflicts(meeting.getStartTime(), meeting.getEndTime(), other.getStartTime(),
+                    other.getEndTime());
+        }
+    }
+}
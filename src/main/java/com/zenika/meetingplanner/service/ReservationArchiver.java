@@ -0,0 +1,55 @@
+package com.zenika.meetingplanner.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+/**
+ * Move the reservations older than the retention horizon into the archive, one day per transaction,
+ * oldest day first, and evict each archived day from the occupancy index.
+ * Availability checks then only see live reservations while listings still read the archive.
+ */
+@Service
+public class ReservationArchiver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReservationArchiver.class);
+
+    private final ReservationService reservationService;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final Period retention;
+
+    public ReservationArchiver(ReservationService reservationService, RoomOccupancyIndex occupancyIndex,
+            @Value("${meetingplanner.archive.retention:30d}") Period retention) {
+        if (retention.isNegative())
+            throw new IllegalArgumentException("Archive retention cannot be negative");
+        this.reservationService = reservationService;
+        this.occupancyIndex = occupancyIndex;
+        this.retention = retention;
+    }
+
+    /**
+     * Archive every day before the retention horizon
+     * @return The number of archived reservations
+     */
+    @Scheduled(initialDelayString = "${meetingplanner.archive.interval:PT1H}",
+            fixedDelayString = "${meetingplanner.archive.interval:PT1H}")
+    public int archive() {
+        LocalDate horizon = LocalDate.now().minus(retention);
+        int archived = 0;
+        int days = 0;
+        LocalDate date;
+        while ((date = reservationService.findFirstDate()) != null && date.isBefore(horizon)) {
+            archived += reservationService.archive(date);
+            occupancyIndex.evict(date);
+            days++;
+        }
+        if (days > 0)
+            LOGGER.info("Archived {} reservations of {} days before {}", archived, days, horizon);
+        return archived;
+    }
+}
@@ -0,0 +1,372 @@
+package com.zenika.meetingplanner.service;
+
+import com.zenika.meetingplanner.model.ReservationEvent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fan the outbox events out to the server-sent event subscribers of this instance.
+ * A single poll of the outbox per interval serves every subscriber, whichever instance wrote the events.
+ * Offsets are handed out before commit, so an offset missing from the outbox may still be committed:
+ * the dispatcher waits for it up to the gap timeout, then moves on and still sends the event if it is
+ * committed within the late commit timeout.
+ * The poll only queues the events of each subscriber, they are sent by a sender thread per subscriber
+ * with pending events, so a slow client holds back neither the others nor the scheduler. A subscriber
+ * whose queue is full is closed and resumes from its last event id.
+ */
+@Service
+public class ReservationEventDispatcher implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReservationEventDispatcher.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final ReservationEventService reservationEventService;
+    private final Executor senders;
+    private final Duration timeout;
+    private final Duration gapTimeout;
+    private final Duration lateCommitTimeout;
+    private final Duration retention;
+    private final int queueCapacity;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Object cursorLock = new Object();
+    /**
+     * Offsets skipped after the gap timeout and the time they were skipped, read and written by the dispatch only
+     */
+    private final Map<Long, Instant> skipped = new HashMap<>();
+    private volatile Long cursor;
+    private Instant gapSince;
+
+    @Autowired
+    public ReservationEventDispatcher(ReservationEventService reservationEventService,
+            @Value("${meetingplanner.events.timeout:30m}") Duration timeout,
+            @Value("${meetingplanner.events.gap-timeout:5s}") Duration gapTimeout,
+            @Value("${meetingplanner.events.late-commit-timeout:1m}") Duration lateCommitTimeout,
+            @Value("${meetingplanner.events.retention:7d}") Duration retention,
+            @Value("${meetingplanner.events.queue-capacity:1000}") int queueCapacity,
+            @Value("${meetingplanner.events.max-senders:64}") int maxSenders) {
+        this(reservationEventService, new ThreadPoolExecutor(0, maxSenders, 60, TimeUnit.SECONDS,
+                        new SynchronousQueue<>(), new CustomizableThreadFactory("reservation-events-")),
+                timeout, gapTimeout, lateCommitTimeout, retention, queueCapacity);
+    }
+
+    ReservationEventDispatcher(ReservationEventService reservationEventService, Executor senders, Duration timeout,
+            Duration gapTimeout, Duration lateCommitTimeout, Duration retention, int queueCapacity) {
+        this.reservationEventService = reservationEventService;
+        this.senders = senders;
+        this.timeout = timeout;
+        this.gapTimeout = gapTimeout;
+        this.lateCommitTimeout = lateCommitTimeout;
+        this.retention = retention;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Subscribe to the reservation events. Events following the given offset are replayed from the outbox
+     * before the live events, each event being sent once and in offset order.
+     * @param lastEventId The offset of the last event received, only live events are sent if null
+     * @return The emitter of the events
+     * @throws IOException if the replayed events cannot be sent
+     */
+    public SseEmitter subscribe(Long lastEventId) throws IOException {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, lastEventId != null ? lastEventId : head());
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        try {
+            subscriber.replay();
+        } catch (IOException e) {
+            subscribers.remove(subscriber);
+            throw e;
+        }
+        subscriber.startSending();
+        return emitter;
+    }
+
+    /**
+     * Queue the events committed since the previous poll for every subscriber
+     * @return The number of dispatched events, late events included
+     */
+    @Scheduled(fixedDelayString = "${meetingplanner.events.poll-interval:PT0.5S}")
+    public synchronized int dispatch() {
+        List<ReservationEvent> late = findLateEvents();
+        long from = head();
+        List<ReservationEvent> events = reservationEventService.findAfter(from, BATCH_SIZE);
+        int ready = 0;
+        long expected = from + 1;
+        for (ReservationEvent event : events) {
+            if (event.getId() != expected) {
+                if (!gapTimedOut())
+                    break;
+                skip(expected, event.getId());
+            }
+            gapSince = null;
+            expected = event.getId() + 1;
+            ready++;
+        }
+        if (ready == 0 && late.isEmpty())
+            return 0;
+
+        List<ReservationEvent> dispatched = events.subList(0, ready);
+        // the cursor moves before queueing, a subscriber replaying meanwhile reads these events itself
+        if (ready > 0)
+            cursor = dispatched.get(ready - 1).getId();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(late, dispatched);
+        }
+        return ready + late.size();
+    }
+
+    /**
+     * Delete the events older than the retention, clients resuming from a deleted offset miss them
+     * @return The number of deleted events
+     */
+    @Scheduled(initialDelayString = "${meetingplanner.events.purge-interval:PT1H}",
+            fixedDelayString = "${meetingplanner.events.purge-interval:PT1H}")
+    public int purge() {
+        int purged = reservationEventService.purge(Instant.now().minus(retention));
+        if (purged > 0)
+            LOGGER.info("Purged {} reservation events older than {}", purged, retention);
+        return purged;
+    }
+
+    /**
+     * Get the number of subscribers of this instance
+     * @return The number of subscribers
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Get the offset of the last event sent to the subscribers
+     * @return The offset
+     */
+    public long getLastDispatchedId() {
+        return head();
+    }
+
+    @Override
+    public void destroy() {
+        if (senders instanceof ExecutorService executorService)
+            executorService.shutdownNow();
+    }
+
+    /**
+     * Get the offset of the last dispatched event, the latest event of the outbox at first use.
+     * Subscribers call it holding their own lock, so it must not wait for a running dispatch.
+     * @return The offset
+     */
+    private long head() {
+        Long current = cursor;
+        if (current != null)
+            return current;
+        synchronized (cursorLock) {
+            if (cursor == null)
+                cursor = reservationEventService.findLastId();
+            return cursor;
+        }
+    }
+
+    private boolean gapTimedOut() {
+        Instant now = Instant.now();
+        if (gapSince == null)
+            gapSince = now;
+        return !now.isBefore(gapSince.plus(gapTimeout));
+    }
+
+    /**
+     * Watch the offsets of a timed out gap, in case their transaction still commits
+     * @param from The first missing offset
+     * @param to The offset following the gap
+     */
+    private void skip(long from, long to) {
+        Instant now = Instant.now();
+        for (long id = from; id < to; id++) {
+            skipped.put(id, now);
+        }
+    }
+
+    /**
+     * Get the events of the skipped offsets committed since, and stop watching the offsets
+     * skipped for longer than the late commit timeout
+     * @return List of ReservationEvent, in offset order
+     */
+    private List<ReservationEvent> findLateEvents() {
+        Instant horizon = Instant.now().minus(lateCommitTimeout);
+        skipped.values().removeIf(skippedAt -> skippedAt.isBefore(horizon));
+        if (skipped.isEmpty())
+            return List.of();
+        List<ReservationEvent> late = reservationEventService.findByIds(new ArrayList<>(skipped.keySet()));
+        for (ReservationEvent event : late) {
+            skipped.remove(event.getId());
+        }
+        if (!late.isEmpty())
+            LOGGER.info("Dispatching {} reservation events committed after the gap timeout", late.size());
+        return late;
+    }
+
+    /**
+     * Event queued for a subscriber
+     * @param event The event
+     * @param late true for an event committed after the gap timeout, behind the events already sent
+     */
+    private record Pending(ReservationEvent event, boolean late) {}
+
+    private class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(queueCapacity);
+        /**
+         * Set while a sender drains the queue, and until the replay is done
+         */
+        private final AtomicBoolean sending = new AtomicBoolean(true);
+        private long lastId;
+
+        private Subscriber(SseEmitter emitter, long lastId) {
+            this.emitter = emitter;
+            this.lastId = lastId;
+        }
+
+        /**
+         * Send the events from the last received offset up to the last dispatched one
+         */
+        private synchronized void replay() throws IOException {
+            long to = head();
+            while (lastId < to) {
+                long upTo = to;
+                List<ReservationEvent> events = reservationEventService.findAfter(lastId, BATCH_SIZE).stream()
+                        .filter(event -> event.getId() <= upTo)
+                        .toList();
+                if (events.isEmpty())
+                    break;
+                for (ReservationEvent event : events) {
+                    send(event);
+                }
+            }
+        }
+
+        /**
+         * Queue events to send, closing the subscriber if it has fallen too far behind
+         */
+        private void enqueue(List<ReservationEvent> late, List<ReservationEvent> events) {
+            for (ReservationEvent event : late) {
+                if (!queue.offer(new Pending(event, true))) {
+                    close();
+                    return;
+                }
+            }
+            for (ReservationEvent event : events) {
+                if (!queue.offer(new Pending(event, false))) {
+                    close();
+                    return;
+                }
+            }
+            drain();
+        }
+
+        /**
+         * Let the queued events be sent, once the replay is done
+         */
+        private void startSending() {
+            sending.set(false);
+            drain();
+        }
+
+        /**
+         * Start a sender for the queued events, unless one is already running
+         */
+        private void drain() {
+            if (queue.isEmpty() || !sending.compareAndSet(false, true))
+                return;
+            try {
+                senders.execute(this::sendQueued);
+            } catch (RejectedExecutionException e) {
+                LOGGER.warn("Closing a reservation event subscriber, no sender available");
+                subscribers.remove(this);
+                emitter.complete();
+            }
+        }
+
+        private void sendQueued() {
+            try {
+                Pending pending;
+                while ((pending = queue.poll()) != null) {
+                    if (pending.late())
+                        sendLate(pending.event());
+                    else
+                        send(pending.event());
+                }
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+                return;
+            }
+            sending.set(false);
+            // events queued after the last poll of the queue
+            drain();
+        }
+
+        /**
+         * Close the subscriber, the client reconnects with its last event id and replays the outbox
+         */
+        private void close() {
+            LOGGER.warn("Closing a slow reservation event subscriber, {} events pending", queue.size());
+            subscribers.remove(this);
+            queue.clear();
+            emitter.complete();
+        }
+
+        /**
+         * Send an event not received yet
+         */
+        private synchronized void send(ReservationEvent event) throws IOException {
+            if (event.getId() <= lastId)
+                return;
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.getId()))
+                    .name(event.getType().toLowerCase(Locale.ROOT))
+                    .data(event.getPayload(), MediaType.APPLICATION_JSON));
+            lastId = event.getId();
+        }
+
+        /**
+         * Send an event committed after the gap timeout, without id so that the client keeps its resume offset
+         */
+        private synchronized void sendLate(ReservationEvent event) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .name(event.getType().toLowerCase(Locale.ROOT))
+                    .data(event.getPayload(), MediaType.APPLICATION_JSON));
+        }
+    }
+}
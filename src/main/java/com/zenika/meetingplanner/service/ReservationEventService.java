@@ -0,0 +1,100 @@
+package com.zenika.meetingplanner.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zenika.meetingplanner.helper.Mapper;
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.model.ReservationEvent;
+import com.zenika.meetingplanner.repository.ReservationEventRepository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Outbox of the reservation changes. Events are inserted in the transaction of the change,
+ * so an event exists if and only if its change is committed, whichever instance made it.
+ */
+@Service
+public class ReservationEventService {
+
+    private final ReservationEventRepository reservationEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ReservationEventService(ReservationEventRepository reservationEventRepository, JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper) {
+        this.reservationEventRepository = reservationEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write the events of changed reservations, with a single JDBC batch.
+     * Must be called in the transaction making the changes.
+     * @param type The type of the changes
+     * @param reservations The changed reservations, with their id and room
+     */
+    public void record(ReservationEvent.Type type, List<Reservation> reservations) {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        List<Object[]> events = new ArrayList<>(reservations.size());
+        for (Reservation reservation : reservations) {
+            try {
+                events.add(new Object[]{type.name(), reservation.getId(),
+                        objectMapper.writeValueAsString(Mapper.ReservationToReservationDto(reservation)), now});
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (!events.isEmpty())
+            jdbcTemplate.batchUpdate("insert into reservation_events (type, reservation_id, payload, created_at) values (?, ?, ?, ?)",
+                    events);
+    }
+
+    /**
+     * Get the events following an offset
+     * @param id The offset of the last event already read
+     * @param limit The maximum number of events
+     * @return List of ReservationEvent, in offset order
+     */
+    public List<ReservationEvent> findAfter(long id, int limit) {
+        return reservationEventRepository.findByIdGreaterThanOrderByIdAsc(id, Limit.of(limit));
+    }
+
+    /**
+     * Get the events of some offsets
+     * @param ids The offsets
+     * @return List of ReservationEvent, in offset order, without the offsets missing from the outbox
+     */
+    public List<ReservationEvent> findByIds(Collection<Long> ids) {
+        return reservationEventRepository.findByIdInOrderByIdAsc(ids);
+    }
+
+    /**
+     * Get the offset of the latest event
+     * @return The offset, 0 if the outbox is empty
+     */
+    public long findLastId() {
+        Long lastId = reservationEventRepository.findLastId();
+        return lastId != null ? lastId : 0;
+    }
+
+    /**
+     * Delete the events written before an instant
+     * @param horizon The instant
+     * @return The number of deleted events
+     */
+    @Transactional
+    public int purge(Instant horizon) {
+        return reservationEventRepository.deleteByCreatedAtBefore(horizon);
+    }
+}
@@ -0,0 +1,90 @@
+package com.zenika.meetingplanner.service;
+
+import com.zenika.meetingplanner.helper.Mapper;
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.model.Room;
+import com.zenika.meetingplanner.repository.ReservationListingRepository;
+import com.zenika.meetingplanner.repository.RoomRepository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintain the reservation listing, the flattened read model of the reservations.
+ * Rows are inserted in the transaction saving the reservations, the normalized tables stay the reference.
+ */
+@Service
+public class ReservationListingService {
+
+    private final ReservationListingRepository reservationListingRepository;
+    private final RoomRepository roomRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+
+    public ReservationListingService(ReservationListingRepository reservationListingRepository,
+            RoomRepository roomRepository, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.reservationListingRepository = reservationListingRepository;
+        this.roomRepository = roomRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Insert the listing rows of saved reservations, with a single JDBC batch.
+     * Must be called in the transaction saving the reservations.
+     * @param reservations The reservations, with their id and their room with its equipments
+     */
+    public void add(List<Reservation> reservations) {
+        Map<String, String> equipmentsByRoom = new HashMap<>();
+        List<Object[]> rows = new ArrayList<>(reservations.size());
+        for (Reservation reservation : reservations) {
+            Room room = reservation.getRoom();
+            String equipments = equipmentsByRoom.computeIfAbsent(room.getName(),
+                    name -> Mapper.EquipmentDtosToJson(Mapper.RoomToCachedRoomDto(room).getEquipments()));
+            rows.add(new Object[]{reservation.getId(), reservation.getReservationNumber(), reservation.getDate(),
+                    reservation.getStartTime(), reservation.getEndTime(), reservation.getType(),
+                    reservation.getAttendees(), reservation.getReservedBy(), room.getName(), room.getMaxCapacity(),
+                    equipments});
+        }
+        if (!rows.isEmpty())
+            jdbcTemplate.batchUpdate("""
+                    insert into reservation_listing (id, reservation_number, date, start_time, end_time, type,
+                        attendees, reserved_by, room_name, room_capacity, room_equipments)
+                    values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                    """, rows);
+    }
+
+    /**
+     * Copy the capacity and equipments of a room into its listing rows once the change of the room is committed
+     * @param roomName The name of the changed room
+     */
+    public void refreshRoom(String roomName) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            updateRoom(roomName);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                updateRoom(roomName);
+            }
+        });
+    }
+
+    private void updateRoom(String roomName) {
+        newTransaction.executeWithoutResult(status -> roomRepository.findById(roomName).ifPresent(room ->
+                reservationListingRepository.updateRoom(roomName, room.getMaxCapacity(),
+                        Mapper.EquipmentDtosToJson(Mapper.RoomToRoomDto(room).getEquipments()))));
+    }
+}
@@ -1,22 +1,66 @@
 package com.zenika.meetingplanner.service;
 
+import com.zenika.meetingplanner.helper.ReservationCursor;
 import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.model.ReservationEvent;
+import com.zenika.meetingplanner.model.ReservationListing;
+import com.zenika.meetingplanner.repository.ArchivedReservationRepository;
+import com.zenika.meetingplanner.repository.ReservationListingRepository;
 import com.zenika.meetingplanner.repository.ReservationRepository;
+import com.zenika.meetingplanner.request.ListReservationsRequest;
+
+import jakarta.persistence.EntityManager;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+/**
+ * Writes go to the normalized reservations, copied into the reservation listing in the same transaction.
+ * Listings only read the reservation listing, which keeps the archived reservations.
+ */
 @Service
 public class ReservationService {
 
     private final ReservationRepository reservationRepository;
+    private final ArchivedReservationRepository archivedReservationRepository;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final SlotClaimService slotClaimService;
+    private final ReservationEventService reservationEventService;
+    private final ReservationListingService reservationListingService;
+    private final ReservationListingRepository reservationListingRepository;
+    private final EntityManager entityManager;
 
-    public ReservationService(ReservationRepository reservationRepository) {
+    public ReservationService(ReservationRepository reservationRepository,
+            ArchivedReservationRepository archivedReservationRepository, RoomOccupancyIndex occupancyIndex,
+            SlotClaimService slotClaimService, ReservationEventService reservationEventService,
+            ReservationListingService reservationListingService, ReservationListingRepository reservationListingRepository,
+            EntityManager entityManager) {
         this.reservationRepository = reservationRepository;
+        this.archivedReservationRepository = archivedReservationRepository;
+        this.occupancyIndex = occupancyIndex;
+        this.slotClaimService = slotClaimService;
+        this.reservationEventService = reservationEventService;
+        this.reservationListingService = reservationListingService;
+        this.reservationListingRepository = reservationListingRepository;
+        this.entityManager = entityManager;
     }
 
     /**
-     * Get all reservations
+     * Get all live reservations
      * @return List of Reservation
      */
     public List<Reservation> findAll(){
@@ -24,11 +68,155 @@ public class ReservationService {
     }
 
     /**
-     * Save a reservation
+     * Get a page of archived and live reservations in (date, startTime, id) order, from the reservation listing
+     * @param request The filters and the cursor of the previous page
+     * @param limit The maximum number of reservations
+     * @return Slice of ReservationListing, with a next slice if more reservations match
+     */
+    public Slice<ReservationListing> findPage(ListReservationsRequest request, int limit){
+        ReservationCursor cursor = request.getCursor() != null ? ReservationCursor.decode(request.getCursor()) : null;
+        List<ReservationListing> reservations = reservationListingRepository.findPage(request.getFrom(), request.getTo(),
+                request.getRoom(), request.getReservedBy(), cursor != null ? cursor.date() : null,
+                cursor != null ? cursor.startTime() : null, cursor != null ? cursor.id() : null, Limit.of(limit + 1));
+        boolean hasNext = reservations.size() > limit;
+        return new SliceImpl<>(hasNext ? reservations.subList(0, limit) : reservations, PageRequest.ofSize(limit), hasNext);
+    }
+
+    /**
+     * Hand every archived and live reservation matching the filters to a consumer as it is read from the reservation listing.
+     * Rows are detached once consumed so memory does not grow with the result size.
+     * @param request The filters
+     * @param consumer The consumer of the reservations
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(ListReservationsRequest request, Consumer<ReservationListing> consumer){
+        try (Stream<ReservationListing> reservations = reservationListingRepository.streamAll(request.getFrom(),
+                request.getTo(), request.getRoom(), request.getReservedBy())) {
+            reservations.forEach(reservation -> {
+                consumer.accept(reservation);
+                entityManager.detach(reservation);
+            });
+        }
+    }
+
+    /**
+     * Save a reservation, copy it into the listing, claim its slots and write its event to the outbox
+     * in a single transaction, then register it in the occupancy index once committed
      * @param reservation The reservation to save
      * @return The saved reservation
+     * @throws org.springframework.dao.DataIntegrityViolationException if a slot has been claimed in the meantime
      */
+    @Transactional
     public Reservation save(Reservation reservation){
-        return reservationRepository.save(reservation);
+        Reservation savedReservation = reservationRepository.saveAndFlush(reservation);
+        reservationListingService.add(List.of(savedReservation));
+        slotClaimService.claim(List.of(savedReservation));
+        reservationEventService.record(ReservationEvent.Type.CREATED, List.of(savedReservation));
+        indexAfterCommit(List.of(savedReservation));
+        return savedReservation;
+    }
+
+    /**
+     * Save reservations in a single batched transaction, copy them into the listing, claim their slots
+     * and write their events to the outbox, then register them in the occupancy index once committed
+     * @param reservations The reservations to save
+     * @return The saved reservations
+     * @throws org.springframework.dao.DataIntegrityViolationException if a slot has been claimed in the meantime,
+     * nothing is saved
+     */
+    @Transactional
+    public List<Reservation> saveAll(List<Reservation> reservations){
+        return saveAll(reservations, savedReservations -> {});
+    }
+
+    /**
+     * Same as {@link #saveAll(List)}, running a last step in the transaction once the reservations are written,
+     * so that the step and the reservations are committed or rolled back together
+     * @param reservations The reservations to save
+     * @param inTransaction The last step, given the saved reservations
+     * @return The saved reservations
+     * @throws org.springframework.dao.DataIntegrityViolationException if a slot has been claimed in the meantime,
+     * nothing is saved
+     */
+    @Transactional
+    public List<Reservation> saveAll(List<Reservation> reservations, Consumer<List<Reservation>> inTransaction){
+        List<Reservation> savedReservations = reservationRepository.saveAllAndFlush(reservations);
+        reservationListingService.add(savedReservations);
+        slotClaimService.claim(savedReservations);
+        reservationEventService.record(ReservationEvent.Type.CREATED, savedReservations);
+        inTransaction.accept(savedReservations);
+        indexAfterCommit(List.copyOf(savedReservations));
+        return savedReservations;
+    }
+
+    /**
+     * Register reservations in the occupancy index once the transaction is committed, so that a booking
+     * rolled back, even by a failed commit, never shows as busy. The commit happens before the transactional
+     * method returns, so the caller still holds its room and day locks.
+     * @param reservations The saved reservations
+     */
+    private void indexAfterCommit(List<Reservation> reservations){
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reservations.forEach(occupancyIndex::add);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reservations.forEach(occupancyIndex::add);
+            }
+        });
+    }
+
+    /**
+     * Reload the occupancy of some days from the database, once a claim has revealed a booking of another instance
+     * @param dates The dates to reload
+     */
+    @Transactional(readOnly = true)
+    public void refreshOccupancy(Collection<LocalDate> dates){
+        for (LocalDate date : dates) {
+            occupancyIndex.replace(date, reservationRepository.findByDate(date));
+        }
+    }
+
+    /**
+     * Get the watermark of each day of a date range, read from the database so that every instance sees the same
+     * @param from The first date
+     * @param to The last date
+     * @return List of DayWatermark, days without reservation being left out
+     */
+    public List<ReservationRepository.DayWatermark> findDayWatermarks(LocalDate from, LocalDate to){
+        return reservationRepository.findDayWatermarks(from, to);
+    }
+
+    /**
+     * Move the reservations of a day into the archive, in a single transaction. Their listing rows are kept.
+     * @param date The date of the reservations
+     * @return The number of archived reservations
+     */
+    @Transactional
+    public int archive(LocalDate date){
+        int archived = archivedReservationRepository.archive(date);
+        int deleted = reservationRepository.deleteByDate(date);
+        slotClaimService.release(date);
+        if (archived != deleted)
+            throw new IllegalStateException("Archived " + archived + " reservations of " + date + " but deleted " + deleted);
+        return archived;
+    }
+
+    /**
+     * Get the date of the oldest live reservation
+     * @return The date, null if there is no live reservation
+     */
+    public LocalDate findFirstDate(){
+        return reservationRepository.findFirstDate();
+    }
+
+    /**
+     * Rebuild the occupancy index from the database once the application is started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOccupancyIndex(){
+        occupancyIndex.rebuild(reservationRepository.findAll());
     }
 }
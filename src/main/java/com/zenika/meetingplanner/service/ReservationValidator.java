@@ -0,0 +1,137 @@
+package com.zenika.meetingplanner.service;
+
+import com.zenika.meetingplanner.request.StoreReservationRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Component
+public class ReservationValidator {
+
+    public static final int FIRST_HOUR = 8;
+    public static final int LAST_HOUR = 20;
+    public static final Duration MIN_DURATION = Duration.ofMinutes(30);
+    public static final Duration MAX_DURATION = Duration.ofHours(12);
+
+    public enum Rejection {
+        INVALID_REQUEST("Requête invalide"),
+        INVALID_TYPE("Type de réunion invalide"),
+        PAST_DATE("La date et l'heure de début doivent être ultérieures à la date et l'heure actuelles"),
+        WEEKEND("Impossible de réserver le week-end"),
+        NOT_FULL_HOUR("L'heure de début doit être au format d'heure pleine"),
+        OUT_OF_HOURS("Les réservations ne sont autorisées qu'entre 8h00 et 20h00"),
+        INVALID_DURATION("La durée doit être comprise entre 30 minutes et 12 heures, par tranches de 30 minutes"),
+        NO_ROOM_AVAILABLE("Aucune salle disponible pour cette réservation");
+
+        private final String message;
+
+        Rejection(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * Validate a reservation request
+     * @param request The request containing the reservation data
+     * @return The reason why the request is rejected, null if the request is valid
+     */
+    public Rejection validate(StoreReservationRequest request) {
+        if (request == null || request.getDate() == null || request.getStartTime() == null)
+            return Rejection.INVALID_REQUEST;
+
+        if (request.getType() == null || !List.of("VC", "SPEC", "RC", "RS").contains(request.getType().toUpperCase()))
+            return Rejection.INVALID_TYPE;
+
+        if (!isDateAndTimeAfterNow(request.getDate(), request.getStartTime()))
+            return Rejection.PAST_DATE;
+
+        if (isWeekend(request.getDate()))
+            return Rejection.WEEKEND;
+
+        if (!isTimeInFullHourStyle(request.getStartTime()))
+            return Rejection.NOT_FULL_HOUR;
+
+        if (!isTimeBetween(FIRST_HOUR, LAST_HOUR, request.getStartTime()))
+            return Rejection.OUT_OF_HOURS;
+
+        if (request.getEndTime() != null && !isDurationValid(request.getStartTime(), request.getEndTime()))
+            return Rejection.INVALID_DURATION;
+
+        return null;
+    }
+
+    /**
+     * Validate reservation requests in parallel
+     * @param requests The requests
+     * @return The reason why each request is rejected, in the order of the requests, null for the valid ones
+     */
+    public List<Rejection> validateAll(List<StoreReservationRequest> requests) {
+        return requests.parallelStream().map(this::validate).toList();
+    }
+
+    /**
+     * Check if the given date is a weekend
+     * @param date The date to check
+     * @return true if the given date is a weekend, false otherwise
+     */
+    private boolean isWeekend(LocalDate date) {
+        if (date == null)
+            return false;
+        return date.getDayOfWeek().getValue() >= 6;
+    }
+
+    /**
+     * Check if the given time is between the given start and end
+     * @param start The start time
+     * @param end The end time
+     * @param target The time to check
+     * @return true if the given time is between the given start and end, false otherwise
+     */
+    private boolean isTimeBetween(int start, int end, LocalTime target) {
+        if (target == null)
+            return false;
+        return target.getHour() >= start && target.getHour() <= end;
+    }
+
+    /**
+     * Check if the given time is in full hour style
+     * @param time The time to check
+     * @return true if the given time is in full hour style, false otherwise
+     */
+    private boolean isTimeInFullHourStyle(LocalTime time) {
+        return time.getMinute() == 0;
+    }
+
+    /**
+     * Check if a meeting lasts a whole number of half hours, between {@link #MIN_DURATION} and
+     * {@link #MAX_DURATION}, and ends the day it starts
+     * @param startTime The start time
+     * @param endTime The end time
+     * @return true if the duration is valid, false otherwise
+     */
+    private boolean isDurationValid(LocalTime startTime, LocalTime endTime) {
+        if (!endTime.isAfter(startTime))
+            return false;
+        Duration duration = Duration.between(startTime, endTime);
+        return duration.compareTo(MIN_DURATION) >= 0 && duration.compareTo(MAX_DURATION) <= 0
+                && duration.toSeconds() % MIN_DURATION.toSeconds() == 0;
+    }
+
+    /**
+     *  Check if the given date and time are after the current date and time
+     * 
+     *  @param date The date to check
+     *  @param time The time to check
+     *  @return true if the given date and time are after the current date and time, false otherwise
+     */
+    private boolean isDateAndTimeAfterNow(LocalDate date, LocalTime time) {
+        return date.isAfter(LocalDate.now()) || (date.isEqual(LocalDate.now()) && time.isAfter(LocalTime.now()));
+    }
+}
@@ -0,0 +1,44 @@
+package com.zenika.meetingplanner.service;
+
+import com.zenika.meetingplanner.helper.Mapper;
+import com.zenika.meetingplanner.model.Room;
+import com.zenika.meetingplanner.repository.RoomRepository;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Evict the room cache and the cached RoomDto of a room whenever the room is saved or deleted,
+ * including through the entity manager where the evictions of {@link RoomRepository} do not apply,
+ * and copy the room into the listing rows of its reservations once the change is committed
+ */
+public class RoomCatalogListener {
+
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final ObjectProvider<ReservationListingService> reservationListingService;
+
+    public RoomCatalogListener(ObjectProvider<CacheManager> cacheManager,
+            ObjectProvider<ReservationListingService> reservationListingService) {
+        this.cacheManager = cacheManager;
+        this.reservationListingService = reservationListingService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onRoomChange(Room room) {
+        cacheManager.ifAvailable(manager -> {
+            Cache rooms = manager.getCache(RoomRepository.CACHE);
+            if (rooms != null)
+                rooms.clear();
+        });
+        Mapper.evictRoomDto(room.getName());
+        if (room.getName() != null)
+            reservationListingService.ifAvailable(service -> service.refreshRoom(room.getName()));
+    }
+}
@@ -0,0 +1,53 @@
+package com.zenika.meetingplanner.service;
+
+import com.zenika.meetingplanner.model.Room;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Apply {@link RoomCatalogListener} to the changes of the equipments of a room: they only write
+ * the join table, so the room itself is not updated and its JPA callbacks do not fire
+ */
+@Component
+public class RoomEquipmentsListener implements PostCollectionUpdateEventListener, PostCollectionRecreateEventListener {
+
+    private static final String EQUIPMENTS_ROLE = Room.class.getName() + ".equipments";
+
+    private final RoomCatalogListener roomCatalogListener;
+
+    public RoomEquipmentsListener(EntityManagerFactory entityManagerFactory, ObjectProvider<CacheManager> cacheManager,
+            ObjectProvider<ReservationListingService> reservationListingService) {
+        this.roomCatalogListener = new RoomCatalogListener(cacheManager, reservationListingService);
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        onEquipmentsChange(event);
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        onEquipmentsChange(event);
+    }
+
+    private void onEquipmentsChange(AbstractCollectionEvent event) {
+        if (event.getAffectedOwnerOrNull() instanceof Room room && EQUIPMENTS_ROLE.equals(event.getCollection().getRole()))
+            roomCatalogListener.onRoomChange(room);
+    }
+}
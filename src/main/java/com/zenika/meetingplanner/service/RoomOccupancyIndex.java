@@ -0,0 +1,311 @@
+package com.zenika.meetingplanner.service;
+
+import com.zenika.meetingplanner.model.Reservation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory occupancy of every room, one sorted map of busy intervals per room and day, in minutes
+ * of the day. Overlapping or touching reservations are merged into a single interval, so the
+ * intervals of a day never overlap and an overlap query is one floor lookup, O(log n).
+ * Two reservations of a room must be separated by the cleanup buffers: the buffer before the start
+ * of a meeting plus the buffer after the end of the previous one.
+ * Days whose reservations are archived are evicted, so the index only holds live reservations.
+ * With several instances the index is a local cache of the database: the slot claims decide, and a day
+ * is reloaded with {@link #replace} when a claim reveals a booking made by another instance.
+ */
+@Component
+public class RoomOccupancyIndex {
+
+    public static final Duration DEFAULT_BUFFER_BEFORE = Duration.ZERO;
+    public static final Duration DEFAULT_BUFFER_AFTER = Duration.ofHours(1);
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final Map<String, Map<LocalDate, NavigableMap<Integer, Integer>>> occupancy = new ConcurrentHashMap<>();
+    private final Map<String, Map<LocalDate, AtomicInteger>> reservationCounts = new ConcurrentHashMap<>();
+    private final Duration bufferBefore;
+    private final Duration bufferAfter;
+    private final int gap;
+
+    public RoomOccupancyIndex() {
+        this(DEFAULT_BUFFER_BEFORE, DEFAULT_BUFFER_AFTER);
+    }
+
+    @Autowired
+    public RoomOccupancyIndex(@Value("${meetingplanner.buffer.before:0m}") Duration bufferBefore,
+            @Value("${meetingplanner.buffer.after:1h}") Duration bufferAfter) {
+        if (bufferBefore.isNegative() || bufferAfter.isNegative())
+            throw new IllegalArgumentException("Cleanup buffers cannot be negative");
+        this.bufferBefore = bufferBefore;
+        this.bufferAfter = bufferAfter;
+        this.gap = (int) bufferBefore.plus(bufferAfter).toMinutes();
+    }
+
+    /**
+     * Replace the content of the index with the given reservations
+     * @param reservations The reservations to index
+     */
+    public void rebuild(List<Reservation> reservations) {
+        occupancy.clear();
+        reservationCounts.clear();
+        reservations.forEach(this::add);
+    }
+
+    /**
+     * Add a reservation to the index
+     * @param reservation The reservation to add
+     */
+    public void add(Reservation reservation) {
+        if (reservation.getRoom() == null)
+            return;
+        add(reservation.getRoom().getName(), reservation.getDate(), reservation.getStartTime(),
+                reservation.getEndTime());
+    }
+
+    /**
+     * Mark a room as occupied on a given day
+     * @param roomName The name of the room
+     * @param date The date of the reservation
+     * @param startTime The start time of the reservation
+     * @param endTime The end time of the reservation, one hour after the start if null
+     */
+    public void add(String roomName, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        NavigableMap<Integer, Integer> day = occupancy.computeIfAbsent(roomName, name -> new ConcurrentHashMap<>())
+                .computeIfAbsent(date, key -> new ConcurrentSkipListMap<>());
+        merge(day, minutes(startTime), end(startTime, endTime));
+        reservationCounts.computeIfAbsent(roomName, name -> new ConcurrentHashMap<>())
+                .computeIfAbsent(date, key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    /**
+     * Replace the occupancy of every room on a day with the given reservations, read from the database
+     * @param date The date to replace
+     * @param reservations Every reservation of the day
+     */
+    public void replace(LocalDate date, List<Reservation> reservations) {
+        Map<String, NavigableMap<Integer, Integer>> days = new HashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (Reservation reservation : reservations) {
+            if (reservation.getRoom() == null)
+                continue;
+            String roomName = reservation.getRoom().getName();
+            merge(days.computeIfAbsent(roomName, name -> new ConcurrentSkipListMap<>()),
+                    minutes(reservation.getStartTime()), end(reservation.getStartTime(), reservation.getEndTime()));
+            counts.merge(roomName, 1, Integer::sum);
+        }
+        Set<String> roomNames = new HashSet<>(occupancy.keySet());
+        roomNames.addAll(days.keySet());
+        for (String roomName : roomNames) {
+            NavigableMap<Integer, Integer> day = days.get(roomName);
+            if (day == null) {
+                occupancy.get(roomName).remove(date);
+                Map<LocalDate, AtomicInteger> roomCounts = reservationCounts.get(roomName);
+                if (roomCounts != null)
+                    roomCounts.remove(date);
+            } else {
+                occupancy.computeIfAbsent(roomName, name -> new ConcurrentHashMap<>()).put(date, day);
+                reservationCounts.computeIfAbsent(roomName, name -> new ConcurrentHashMap<>())
+                        .put(date, new AtomicInteger(counts.get(roomName)));
+            }
+        }
+    }
+
+    /**
+     * Remove a day from the index, once its reservations are archived
+     * @param date The date to remove
+     */
+    public void evict(LocalDate date) {
+        occupancy.values().forEach(days -> days.remove(date));
+        reservationCounts.values().forEach(days -> days.remove(date));
+    }
+
+    /**
+     * Check if a one-hour meeting can start in a room at the given time
+     * @param roomName The name of the room
+     * @param date The date of the meeting
+     * @param startTime The start time of the meeting
+     * @return True if the room is available, false otherwise
+     */
+    public boolean isAvailable(String roomName, LocalDate date, LocalTime startTime) {
+        return isAvailable(roomName, date, startTime, null);
+    }
+
+    /**
+     * Check if a meeting can take place in a room, cleanup buffers included
+     * @param roomName The name of the room
+     * @param date The date of the meeting
+     * @param startTime The start time of the meeting
+     * @param endTime The end time of the meeting, one hour after the start if null
+     * @return True if the room is available, false otherwise
+     */
+    public boolean isAvailable(String roomName, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        Map<LocalDate, NavigableMap<Integer, Integer>> days = occupancy.get(roomName);
+        NavigableMap<Integer, Integer> day = days != null ? days.get(date) : null;
+        if (day == null)
+            return true;
+        Map.Entry<Integer, Integer> last = day.lowerEntry(end(startTime, endTime) + gap);
+        return last == null || last.getValue() <= minutes(startTime) - gap;
+    }
+
+    /**
+     * Get the full hours of a day at which a meeting can start in a room, cleanup buffers included,
+     * in a single walk over the busy intervals of the day
+     * @param roomName The name of the room
+     * @param date The date of the meeting
+     * @param firstHour The first hour, bit 0 of the result
+     * @param hours The number of hours, at most 31
+     * @param duration The duration of the meeting, in minutes
+     * @return A bitmask, bit n being set when the meeting can start at firstHour + n
+     */
+    public int freeHours(String roomName, LocalDate date, int firstHour, int hours, int duration) {
+        int free = (1 << hours) - 1;
+        Map<LocalDate, NavigableMap<Integer, Integer>> days = occupancy.get(roomName);
+        NavigableMap<Integer, Integer> day = days != null ? days.get(date) : null;
+        if (day == null)
+            return free;
+        int lastStart = (firstHour + hours - 1) * 60;
+        for (Map.Entry<Integer, Integer> busy : day.entrySet()) {
+            // a start t conflicts with the interval when start - duration - gap < t < end + gap
+            int after = busy.getKey() - duration - gap;
+            if (after >= lastStart)
+                break;
+            int first = Math.max(Math.floorDiv(after, 60) + 1 - firstHour, 0);
+            int last = Math.min(Math.floorDiv(busy.getValue() + gap - 1, 60) - firstHour, hours - 1);
+            for (int hour = first; hour <= last; hour++) {
+                free &= ~(1 << hour);
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Check if two meetings of the same room and day are too close, cleanup buffers included
+     * @param startTime The start time of the first meeting
+     * @param endTime The end time of the first meeting, one hour after the start if null
+     * @param otherStartTime The start time of the second meeting
+     * @param otherEndTime The end time of the second meeting, one hour after the start if null
+     * @return True if the meetings cannot share the room
+     */
+    public boolean conflicts(LocalTime startTime, LocalTime endTime, LocalTime otherStartTime, LocalTime otherEndTime) {
+        return minutes(startTime) < end(otherStartTime, otherEndTime) + gap
+                && minutes(otherStartTime) < end(startTime, endTime) + gap;
+    }
+
+    /**
+     * Get the buffer kept free before each meeting
+     * @return The buffer before
+     */
+    public Duration getBufferBefore() {
+        return bufferBefore;
+    }
+
+    /**
+     * Get the buffer kept free after each meeting
+     * @return The buffer after
+     */
+    public Duration getBufferAfter() {
+        return bufferAfter;
+    }
+
+    /**
+     * Get the number of rooms held by the index
+     * @return The number of rooms with at least one reservation
+     */
+    public int roomCount() {
+        return (int) occupancy.values().stream().filter(days -> !days.isEmpty()).count();
+    }
+
+    /**
+     * Get the number of interval maps held by the index
+     * @return The number of room and day pairs with at least one reservation
+     */
+    public int roomDayCount() {
+        return occupancy.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * Get the number of reservations held by the index
+     * @return The number of reservations of every room
+     */
+    public int reservationCount() {
+        return reservationCounts.values().stream()
+                .flatMap(days -> days.values().stream())
+                .mapToInt(AtomicInteger::get)
+                .sum();
+    }
+
+    /**
+     * Get the number of reservations indexed for the busiest room
+     * @return The largest number of reservations of a room, 0 if the index is empty
+     */
+    public int maxRoomReservationCount() {
+        return reservationCounts.keySet().stream().mapToInt(this::reservationCount).max().orElse(0);
+    }
+
+    /**
+     * Get the number of reservations indexed for a room
+     * @param roomName The name of the room
+     * @return The number of reservations of the room
+     */
+    public int reservationCount(String roomName) {
+        Map<LocalDate, AtomicInteger> days = reservationCounts.get(roomName);
+        return days != null ? days.values().stream().mapToInt(AtomicInteger::get).sum() : 0;
+    }
+
+    /**
+     * Merge a busy interval into the intervals of a room and day.
+     * The merged interval is stored before the intervals it absorbs are removed, so a concurrent
+     * reader never sees a busy time as free.
+     * @param day The intervals of the room and day
+     * @param start The start of the interval, in minutes of the day
+     * @param end The end of the interval, in minutes of the day
+     */
+    private static void merge(NavigableMap<Integer, Integer> day, int start, int end) {
+        synchronized (day) {
+            Map.Entry<Integer, Integer> previous = day.floorEntry(start);
+            if (previous != null && previous.getValue() >= start) {
+                start = previous.getKey();
+                end = Math.max(end, previous.getValue());
+            }
+            Map.Entry<Integer, Integer> last;
+            while ((last = day.floorEntry(end)) != null && last.getKey() >= start && last.getValue() > end) {
+                end = last.getValue();
+            }
+            day.put(start, end);
+            day.subMap(start, false, end, true).clear();
+        }
+    }
+
+    static int minutes(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * Get the end of a meeting in minutes of the day
+     * @param startTime The start time of the meeting
+     * @param endTime The end time of the meeting, one hour after the start if null, the end of the day if before the start
+     * @return The end of the meeting
+     */
+    static int end(LocalTime startTime, LocalTime endTime) {
+        if (endTime == null)
+            return minutes(startTime) + 60;
+        if (endTime.isBefore(startTime))
+            return MINUTES_PER_DAY;
+        return minutes(endTime);
+    }
+}
@@ -7,36 +7,115 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class RoomService {
 
+    /**
+     * Ranking of the rooms for a meeting, the room with the fewest equipments first, then the smallest one
+     */
+    public static final Comparator<Room> BEST_FIT = Comparator.comparingInt((Room room) -> room.getEquipments().size())
+            .thenComparingInt(Room::getMaxCapacity)
+            .thenComparing(Room::getName);
+
+    /**
+     * Number of rooms large enough for a meeting from which they are scanned in parallel
+     */
+    static final int PARALLEL_SCAN_THRESHOLD = 10_000;
+
+    /**
+     * The rooms, and the same rooms grouped by the number of attendees they can host,
+     * each group being ordered by {@link #BEST_FIT}
+     * @param source The list served by the repository the catalog was built from
+     * @param fingerprint The fingerprint of the content of the rooms
+     */
+    private record Catalog(List<Room> source, List<Room> rooms, NavigableMap<Integer, List<Room>> byCapacity,
+                           long fingerprint) {
+    }
+
     private final RoomRepository roomRepository;
+    private final RoomOccupancyIndex occupancyIndex;
+    private volatile Catalog catalog;
 
-    public RoomService(RoomRepository roomRepository) {
+    public RoomService(RoomRepository roomRepository, RoomOccupancyIndex occupancyIndex) {
         this.roomRepository = roomRepository;
+        this.occupancyIndex = occupancyIndex;
     }
 
 
     /**
-     * Get the best fitting room for a meeting
+     * Get all rooms with their equipments, from the room cache
+     * @return List of Room
+     */
+    public List<Room> findAll() {
+        return catalog().rooms();
+    }
+
+    /**
+     * Get a fingerprint of the names, capacities and equipments of the rooms, which changes whenever a room
+     * changes and is the same on every instance holding the same catalog
+     * @return The fingerprint
+     */
+    public long getCatalogFingerprint() {
+        return catalog().fingerprint();
+    }
+
+    /**
+     * Get the best fitting room for a one-hour meeting
      * @param attendees The number of attendees
      * @param type The type of the meeting
      * @param date The date of the meeting
      * @param startTime The start time of the meeting
-     * @return The best fitting room
+     * @return The best fitting room, null if no room is available
      */
     public Room getBestFittingRoom(int attendees, String type, LocalDate date, LocalTime startTime) {
-        List<Room> availableRooms = getAvailableRooms(attendees, type, date, startTime);
-        return availableRooms.stream().min(Comparator.comparingInt(r -> r.getEquipments().size())).orElse(null);
+        return getBestFittingRoom(attendees, type, date, startTime, null);
     }
 
     /**
-     * Get all available rooms for a meeting
+     * Get the best fitting room for a meeting.
+     * Only the rooms large enough are scanned, from the smallest one, and the scan stops at the
+     * first available room having no other equipment than the required ones: no room after it can rank better.
+     * @param attendees The number of attendees
+     * @param type The type of the meeting
+     * @param date The date of the meeting
+     * @param startTime The start time of the meeting
+     * @param endTime The end time of the meeting, one hour after the start if null
+     * @return The best fitting room, null if no room is available
+     */
+    public Room getBestFittingRoom(int attendees, String type, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        List<String> requiredEquipments = getRequiredEquipment(type);
+        Collection<List<Room>> candidates = catalog().byCapacity().tailMap(attendees, true).values();
+        Predicate<Room> isEligible = eligibility(requiredEquipments, date, startTime, endTime);
+        if (count(candidates) >= PARALLEL_SCAN_THRESHOLD)
+            return scan(candidates).filter(isEligible).min(BEST_FIT).orElse(null);
+
+        Room bestRoom = null;
+        for (List<Room> rooms : candidates) {
+            for (Room room : rooms) {
+                if (bestRoom != null && BEST_FIT.compare(room, bestRoom) >= 0)
+                    continue;
+                if (!isEligible.test(room))
+                    continue;
+                if (room.getEquipments().size() == requiredEquipments.size())
+                    return room;
+                bestRoom = room;
+            }
+        }
+        return bestRoom;
+    }
+
+    /**
+     * Get all available rooms for a one-hour meeting
      * @param attendees The number of attendees
      * @param type The type of the meeting
      * @param date The date of the meeting
@@ -44,24 +123,41 @@ public class RoomService {
      * @return List of available rooms
      */
     public List<Room> getAvailableRooms(int attendees, String type, LocalDate date, LocalTime startTime) {
-        List<Room> rooms = roomRepository.findAll();
+        return getAvailableRooms(attendees, type, date, startTime, null);
+    }
 
-        rooms = rooms.stream()
-                .filter(room -> checkRoomCapacity(room.getMaxCapacity(), attendees))
-                .filter(room -> hasRequiredEquipment(room.getEquipments(), getRequiredEquipment(type)))
-                .filter(room -> isRoomAvailable(room, date, startTime))
+    /**
+     * Get all available rooms for a meeting, among the rooms large enough for it.
+     * Rooms are ordered by number of equipments, then by capacity, the best fitting room first.
+     * @param attendees The number of attendees
+     * @param type The type of the meeting
+     * @param date The date of the meeting
+     * @param startTime The start time of the meeting
+     * @param endTime The end time of the meeting, one hour after the start if null
+     * @return List of available rooms
+     */
+    public List<Room> getAvailableRooms(int attendees, String type, LocalDate date, LocalTime startTime,
+            LocalTime endTime) {
+        List<String> requiredEquipments = getRequiredEquipment(type);
+        Collection<List<Room>> candidates = catalog().byCapacity().tailMap(attendees, true).values();
+        return scan(candidates)
+                .filter(eligibility(requiredEquipments, date, startTime, endTime))
+                .sorted(BEST_FIT)
                 .toList();
+    }
 
-        for (Room room : rooms) {
-            if (room.getReservations() != null && room.getReservations().stream()
-                    .anyMatch(reservation -> reservation.getDate().equals(date)
-                            && reservation.getStartTime().equals(startTime))) {
-                rooms.remove(room);
-
-            }
-        }
-
-        return rooms;
+    /**
+     * Get the rooms large enough and equipped for a meeting, whatever their occupancy
+     * @param attendees The number of attendees
+     * @param type The type of the meeting
+     * @return List of Room, the best fitting room first
+     */
+    public List<Room> getEligibleRooms(int attendees, String type) {
+        List<String> requiredEquipments = getRequiredEquipment(type);
+        return scan(catalog().byCapacity().tailMap(attendees, true).values())
+                .filter(room -> hasRequiredEquipment(room.getEquipments(), requiredEquipments))
+                .sorted(BEST_FIT)
+                .toList();
     }
 
     /**
@@ -112,31 +208,92 @@ public class RoomService {
 
 
     /**
-     * Check if the room is available for a meeting
+     * Check if the room is available for a one-hour meeting, cleanup buffers included
      * @param room The room to check
      * @param date The date of the meeting
      * @param startTime The start time of the meeting
      * @return True if the room is available, false otherwise
      */
     public boolean isRoomAvailable(Room room, LocalDate date, LocalTime startTime) {
-        LocalTime endTime = startTime.plusHours(1);
+        return isRoomAvailable(room, date, startTime, null);
+    }
 
-        if(room.getReservations() == null) {
-            return true;
+    /**
+     * Check if the room is available for a meeting, cleanup buffers included
+     * @param room The room to check
+     * @param date The date of the meeting
+     * @param startTime The start time of the meeting
+     * @param endTime The end time of the meeting, one hour after the start if null
+     * @return True if the room is available, false otherwise
+     */
+    public boolean isRoomAvailable(Room room, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        return occupancyIndex.isAvailable(room.getName(), date, startTime, endTime);
+    }
+
+    /**
+     * Get the number of attendees a room can host
+     * @param roomCapacity The capacity of the room
+     * @return The largest number of attendees passing {@link #checkRoomCapacity(int, int)}
+     */
+    static int effectiveCapacity(int roomCapacity) {
+        return (int) Math.floor(roomCapacity * 0.7);
+    }
+
+    private Predicate<Room> eligibility(List<String> requiredEquipments, LocalDate date, LocalTime startTime,
+            LocalTime endTime) {
+        return room -> hasRequiredEquipment(room.getEquipments(), requiredEquipments)
+                && isRoomAvailable(room, date, startTime, endTime);
+    }
+
+    /**
+     * Stream the rooms of the given capacity groups, on the fork-join pool for very large catalogs
+     * @param candidates The capacity groups
+     * @return Stream of Room
+     */
+    private Stream<Room> scan(Collection<List<Room>> candidates) {
+        Stream<List<Room>> groups = count(candidates) >= PARALLEL_SCAN_THRESHOLD
+                ? candidates.parallelStream()
+                : candidates.stream();
+        return groups.flatMap(List::stream);
+    }
+
+    private static int count(Collection<List<Room>> candidates) {
+        int count = 0;
+        for (List<Room> rooms : candidates) {
+            count += rooms.size();
         }
-        return room.getReservations().stream()
-                .noneMatch(reservation -> {
-                    LocalDate reservationDate = reservation.getDate();
-                    LocalTime reservationStartTime = reservation.getStartTime();
-                    LocalTime roomFreeAfter = reservationStartTime.plusHours(2);
-                    LocalTime roomFreeBefore = reservationStartTime.minusHours(1);
-                    
-                    return reservationDate.equals(date) &&
-                        (
-                            (startTime.isBefore(roomFreeAfter) && endTime.isAfter(reservationStartTime)) || 
-                            (startTime.isBefore(reservationStartTime) && endTime.isAfter(roomFreeBefore))
-                        );
-                    });
-    }
-    
+        return count;
+    }
+
+    /**
+     * Get the catalog of the rooms currently cached by the repository,
+     * grouped again only when the cache has been reloaded
+     * @return The catalog
+     */
+    private Catalog catalog() {
+        List<Room> rooms = roomRepository.findAll();
+        Catalog current = catalog;
+        if (current != null && current.source() == rooms)
+            return current;
+
+        NavigableMap<Integer, List<Room>> byCapacity = rooms.stream()
+                .sorted(BEST_FIT)
+                .collect(Collectors.groupingBy(room -> effectiveCapacity(room.getMaxCapacity()), TreeMap::new,
+                        Collectors.toUnmodifiableList()));
+        current = new Catalog(rooms, List.copyOf(rooms), byCapacity, fingerprint(rooms));
+        catalog = current;
+        return current;
+    }
+
+    private static long fingerprint(List<Room> rooms) {
+        long fingerprint = 1;
+        for (Room room : rooms.stream().sorted(Comparator.comparing(Room::getName)).toList()) {
+            List<String> equipments = room.getEquipments() == null ? List.of()
+                    : room.getEquipments().stream().map(Equipment::getName).sorted().toList();
+            fingerprint = 31 * fingerprint + room.getName().hashCode();
+            fingerprint = 31 * fingerprint + room.getMaxCapacity();
+            fingerprint = 31 * fingerprint + equipments.hashCode();
+        }
+        return fingerprint;
+    }
 }
@@ -0,0 +1,81 @@
+package com.zenika.meetingplanner.service;
+
+import com.zenika.meetingplanner.model.Reservation;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Claims of the thirty-minute slots of each room and day, in the database shared by every instance.
+ * A reservation claims the slots from its start to the end of its cleanup buffers, so two meetings
+ * too close to share a room always claim a common slot and the primary key rejects the second one.
+ * Claims are inserted in the transaction that saves the reservation, no lock is held across instances.
+ */
+@Service
+public class SlotClaimService {
+
+    public static final int SLOT_MINUTES = 30;
+
+    private static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int gap;
+
+    public SlotClaimService(JdbcTemplate jdbcTemplate, RoomOccupancyIndex occupancyIndex) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.gap = (int) occupancyIndex.getBufferBefore().plus(occupancyIndex.getBufferAfter()).toMinutes();
+    }
+
+    /**
+     * Claim the slots of saved reservations, with a single JDBC batch.
+     * Must be called in the transaction saving the reservations.
+     * @param reservations The reservations, with their id and room
+     * @throws org.springframework.dao.DuplicateKeyException if a slot is already claimed
+     */
+    public void claim(List<Reservation> reservations) {
+        List<Object[]> claims = new ArrayList<>();
+        for (Reservation reservation : reservations) {
+            int last = lastSlot(reservation.getStartTime(), reservation.getEndTime());
+            for (int slot = firstSlot(reservation.getStartTime()); slot <= last; slot++) {
+                claims.add(new Object[]{reservation.getRoom().getName(), reservation.getDate(), slot, reservation.getId()});
+            }
+        }
+        if (!claims.isEmpty())
+            jdbcTemplate.batchUpdate("insert into slot_claims (room_name, date, slot, reservation_id) values (?, ?, ?, ?)",
+                    claims);
+    }
+
+    /**
+     * Release every claim of a day
+     * @param date The date of the claims
+     * @return The number of released slots
+     */
+    public int release(LocalDate date) {
+        return jdbcTemplate.update("delete from slot_claims where date = ?", date);
+    }
+
+    /**
+     * Get the first slot claimed by a meeting
+     * @param startTime The start time of the meeting
+     * @return The index of the slot
+     */
+    int firstSlot(LocalTime startTime) {
+        return RoomOccupancyIndex.minutes(startTime) / SLOT_MINUTES;
+    }
+
+    /**
+     * Get the last slot claimed by a meeting, the slot holding the end of its cleanup buffers
+     * @param startTime The start time of the meeting
+     * @param endTime The end time of the meeting, one hour after the start if null
+     * @return The index of the slot, the last slot of the day at most
+     */
+    int lastSlot(LocalTime startTime, LocalTime endTime) {
+        int end = RoomOccupancyIndex.end(startTime, endTime) + gap;
+        return Math.min((end + SLOT_MINUTES - 1) / SLOT_MINUTES, SLOTS_PER_DAY) - 1;
+    }
+}
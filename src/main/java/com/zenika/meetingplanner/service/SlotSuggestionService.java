@@ -0,0 +1,134 @@
+package com.zenika.meetingplanner.service;
+
+import com.zenika.meetingplanner.model.Room;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Suggest the free slots nearest to a meeting that could not be booked.
+ * The rooms large enough and equipped are selected once. For each day, the busy intervals of each room
+ * are walked once in best fitting order to give every free hour its best fitting room, stopping as soon
+ * as every hour has one, then the hours are taken from the nearest one until enough slots are found.
+ */
+@Service
+public class SlotSuggestionService {
+
+    public static final int MAX_SUGGESTIONS = 20;
+
+    /**
+     * Number of business days after the requested one where slots are looked for
+     */
+    static final int BUSINESS_DAYS = 5;
+
+    /**
+     * A free slot and the best fitting room for it
+     */
+    public record Suggestion(Room room, LocalDate date, LocalTime startTime, LocalTime endTime) {
+    }
+
+    private static final int HOURS = ReservationValidator.LAST_HOUR - ReservationValidator.FIRST_HOUR + 1;
+
+    private final RoomService roomService;
+    private final RoomOccupancyIndex occupancyIndex;
+
+    public SlotSuggestionService(RoomService roomService, RoomOccupancyIndex occupancyIndex) {
+        this.roomService = roomService;
+        this.occupancyIndex = occupancyIndex;
+    }
+
+    /**
+     * Get the nearest free slots for a meeting, with the same duration: the other hours of the same day
+     * from the closest one, later hours first on a tie, then the following business days.
+     * @param attendees The number of attendees
+     * @param type The type of the meeting
+     * @param date The requested date
+     * @param startTime The requested start time
+     * @param endTime The requested end time, one hour after the start if null
+     * @param limit The maximum number of slots
+     * @return List of Suggestion, one per slot, the nearest first
+     */
+    public List<Suggestion> suggest(int attendees, String type, LocalDate date, LocalTime startTime,
+            LocalTime endTime, int limit) {
+        List<Room> rooms = roomService.getEligibleRooms(attendees, type);
+        if (rooms.isEmpty() || limit < 1)
+            return List.of();
+
+        Duration duration = endTime != null ? Duration.between(startTime, endTime) : Duration.ofHours(1);
+        List<LocalTime> slots = slotsByDistance(startTime);
+        LocalDateTime now = LocalDateTime.now();
+        List<Suggestion> suggestions = new ArrayList<>(limit);
+        LocalDate day = date;
+        for (int i = 0; i <= BUSINESS_DAYS; i++, day = nextBusinessDay(day)) {
+            Room[] roomsByHour = bestFittingRoomsByHour(rooms, day, (int) duration.toMinutes());
+            for (LocalTime slot : slots) {
+                LocalTime slotEnd = slot.plus(duration);
+                if (!slotEnd.isAfter(slot) || !LocalDateTime.of(day, slot).isAfter(now))
+                    continue;
+                Room room = roomsByHour[slot.getHour() - ReservationValidator.FIRST_HOUR];
+                if (room == null)
+                    continue;
+                suggestions.add(new Suggestion(room, day, slot, slotEnd));
+                if (suggestions.size() == limit)
+                    return suggestions;
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Get the best fitting free room of each bookable hour of a day
+     * @param rooms The eligible rooms, the best fitting first
+     * @param date The date
+     * @param duration The duration of the meeting, in minutes
+     * @return The room of each hour from the first bookable one, null when every room is busy
+     */
+    private Room[] bestFittingRoomsByHour(List<Room> rooms, LocalDate date, int duration) {
+        Room[] roomsByHour = new Room[HOURS];
+        int all = (1 << HOURS) - 1;
+        int assigned = 0;
+        for (Room room : rooms) {
+            int free = occupancyIndex.freeHours(room.getName(), date, ReservationValidator.FIRST_HOUR, HOURS, duration)
+                    & ~assigned;
+            for (int hour = 0; free >> hour != 0; hour++) {
+                if ((free & (1 << hour)) != 0)
+                    roomsByHour[hour] = room;
+            }
+            assigned |= free;
+            if (assigned == all)
+                break;
+        }
+        return roomsByHour;
+    }
+
+    /**
+     * Get the bookable start times of a day, the closest to a given time first
+     * @param startTime The requested start time
+     * @return List of full hours between the first and the last bookable hour
+     */
+    static List<LocalTime> slotsByDistance(LocalTime startTime) {
+        List<LocalTime> slots = new ArrayList<>();
+        int hour = startTime.getHour();
+        for (int delta = 0; delta <= ReservationValidator.LAST_HOUR - ReservationValidator.FIRST_HOUR; delta++) {
+            if (hour + delta >= ReservationValidator.FIRST_HOUR && hour + delta <= ReservationValidator.LAST_HOUR)
+                slots.add(LocalTime.of(hour + delta, 0));
+            if (delta > 0 && hour - delta >= ReservationValidator.FIRST_HOUR && hour - delta <= ReservationValidator.LAST_HOUR)
+                slots.add(LocalTime.of(hour - delta, 0));
+        }
+        return slots;
+    }
+
+    private static LocalDate nextBusinessDay(LocalDate date) {
+        LocalDate next = date.plusDays(1);
+        while (next.getDayOfWeek() == DayOfWeek.SATURDAY || next.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            next = next.plusDays(1);
+        }
+        return next;
+    }
+}
@@ -0,0 +1,41 @@
+-- Room catalog, seeded from rooms.json on the first start
+create table equipments (
+    id bigint generated by default as identity primary key,
+    name varchar(255)
+);
+
+create table rooms (
+    name varchar(255) not null primary key,
+    max_capacity integer not null
+);
+
+create table room_equipments_mapping (
+    room_name varchar(255) not null references rooms (name),
+    equipment_id bigint not null references equipments (id),
+    primary key (room_name, equipment_id)
+);
+
+-- Rooms holding an equipment, for the equipment filter of the room search
+create index idx_room_equipments_equipment_room on room_equipments_mapping (equipment_id, room_name);
+
+create sequence reservations_seq start with 1 increment by 50;
+
+create table reservations (
+    id bigint not null primary key,
+    reservation_number integer not null,
+    date date,
+    start_time time,
+    end_time time,
+    type varchar(255),
+    attendees integer not null,
+    reserved_by varchar(255),
+    room_name varchar(255) references rooms (name),
+    -- Also serves the room filter of the listing and the availability check of a room and day
+    constraint uk_reservations_room_date_start unique (room_name, date, start_time)
+);
+
+-- Listing order and keyset pagination, optionally restricted to a date range
+create index idx_reservations_date_start on reservations (date, start_time, id);
+
+-- Listing of the reservations of one person
+create index idx_reservations_reserved_by on reservations (reserved_by, date, start_time, id);
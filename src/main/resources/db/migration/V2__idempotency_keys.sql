@@ -0,0 +1,8 @@
+-- Results of the bulk requests sent with an Idempotency-Key header
+create table idempotency_keys (
+    idempotency_key varchar(255) not null primary key,
+    request_hash varchar(64) not null,
+    status integer,
+    response_body clob,
+    created_at timestamp(6) with time zone
+);
@@ -0,0 +1,18 @@
+-- Reservations past the retention horizon, moved out of reservations by the archiver
+create table reservations_archive (
+    id bigint not null primary key,
+    reservation_number integer not null,
+    date date,
+    start_time time,
+    end_time time,
+    type varchar(255),
+    attendees integer not null,
+    reserved_by varchar(255),
+    room_name varchar(255) references rooms (name)
+);
+
+create index idx_reservations_archive_date_start on reservations_archive (date, start_time, id);
+
+create index idx_reservations_archive_reserved_by on reservations_archive (reserved_by, date, start_time, id);
+
+create index idx_reservations_archive_room on reservations_archive (room_name, date, start_time);
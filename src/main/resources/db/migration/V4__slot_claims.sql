@@ -0,0 +1,22 @@
+-- Thirty-minute slots claimed by each reservation, cleanup buffers included, shared by every instance
+create table slot_claims (
+    room_name varchar(255) not null,
+    date date not null,
+    slot integer not null,
+    reservation_id bigint not null,
+    primary key (room_name, date, slot)
+);
+
+-- Claims of the reservations stored before this migration, with the configured cleanup buffers
+-- (meetingplanner.buffer.before + meetingplanner.buffer.after, see FlywayConfiguration)
+insert into slot_claims (room_name, date, slot, reservation_id)
+select r.room_name, r.date, s.x, r.id
+from reservations r
+join system_range(0, 47) s
+  on s.x >= (extract(hour from r.start_time) * 60 + extract(minute from r.start_time)) / 30
+ and s.x * 30 < case
+         when r.end_time is null then extract(hour from r.start_time) * 60 + extract(minute from r.start_time) + 60
+         when r.end_time < r.start_time then 1440
+         else extract(hour from r.end_time) * 60 + extract(minute from r.end_time)
+     end + ${cleanup_gap_minutes}
+where r.room_name is not null;
@@ -0,0 +1,10 @@
+-- Outbox of the reservation changes, written in the transaction of each change and streamed to the clients
+create table reservation_events (
+    id bigint generated by default as identity primary key,
+    type varchar(16) not null,
+    reservation_id bigint not null,
+    payload clob not null,
+    created_at timestamp(6) with time zone not null
+);
+
+create index idx_reservation_events_created_at on reservation_events (created_at);
@@ -0,0 +1,38 @@
+-- Flattened read model of the live and archived reservations with their room, read by the listings
+create table reservation_listing (
+    id bigint not null primary key,
+    reservation_number integer not null,
+    date date,
+    start_time time,
+    end_time time,
+    type varchar(255),
+    attendees integer not null,
+    reserved_by varchar(255),
+    room_name varchar(255),
+    room_capacity integer not null,
+    room_equipments varchar(2000)
+);
+
+-- Listing order and keyset pagination, optionally restricted to a date range
+create index idx_reservation_listing_date_start on reservation_listing (date, start_time, id);
+
+-- Listing of the reservations of one person
+create index idx_reservation_listing_reserved_by on reservation_listing (reserved_by, date, start_time, id);
+
+-- Listing of the reservations of one room
+create index idx_reservation_listing_room on reservation_listing (room_name, date, start_time, id);
+
+-- Rows of the reservations stored before this migration, equipments as a JSON array ordered by id
+insert into reservation_listing (id, reservation_number, date, start_time, end_time, type, attendees, reserved_by,
+    room_name, room_capacity, room_equipments)
+select r.id, r.reservation_number, r.date, r.start_time, r.end_time, r.type, r.attendees, r.reserved_by,
+    r.room_name, coalesce(room.max_capacity, 0),
+    coalesce((select cast(json_arrayagg(json_object('id': e.id, 'name': e.name) order by e.id) as varchar(2000))
+              from room_equipments_mapping m join equipments e on e.id = m.equipment_id
+              where m.room_name = r.room_name), '[]')
+from (select id, reservation_number, date, start_time, end_time, type, attendees, reserved_by, room_name
+      from reservations
+      union all
+      select id, reservation_number, date, start_time, end_time, type, attendees, reserved_by, room_name
+      from reservations_archive) r
+left join rooms room on room.name = r.room_name;
@@ -0,0 +1,5 @@
+-- Owner of an idempotency key while its request is processed, a stale claim is taken over by a retry
+alter table idempotency_keys add column claimed_by varchar(36);
+
+-- Purge of the keys past their retention
+create index idx_idempotency_keys_created_at on idempotency_keys (created_at);
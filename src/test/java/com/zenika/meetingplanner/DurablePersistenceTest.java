@@ -0,0 +1,86 @@
+package com.zenika.meetingplanner;
+
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.repository.ReservationRepository;
+import com.zenika.meetingplanner.repository.RoomRepository;
+import com.zenika.meetingplanner.service.BookingService;
+import com.zenika.meetingplanner.service.RoomOccupancyIndex;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Start the application twice on the same database file: the migrations must match the entities,
+ * which Hibernate validates, and the second start must keep the reservations without seeding again
+ */
+class DurablePersistenceTest {
+
+    private static final LocalDate DATE = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY)).plusWeeks(1);
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    public void testReservationsSurviveRestart() {
+        Reservation saved;
+        try (ConfigurableApplicationContext context = start()) {
+            Assertions.assertEquals(12, context.getBean(RoomRepository.class).count());
+            saved = context.getBean(BookingService.class).book(Reservation.builder().date(DATE)
+                    .startTime(LocalTime.of(10, 0)).endTime(LocalTime.of(11, 0))
+                    .type("RS").attendees(2).reservedBy("durable").build());
+            Assertions.assertNotNull(saved);
+        }
+
+        try (ConfigurableApplicationContext context = start()) {
+            Assertions.assertEquals(12, context.getBean(RoomRepository.class).count());
+            Assertions.assertEquals(1, context.getBean(ReservationRepository.class).count());
+            Assertions.assertFalse(context.getBean(RoomOccupancyIndex.class)
+                    .isAvailable(saved.getRoom().getName(), DATE, LocalTime.of(10, 0)));
+            Integer failedMigrations = context.getBean(JdbcTemplate.class)
+                    .queryForObject("select count(*) from \"flyway_schema_history\" where not \"success\"", Integer.class);
+            Assertions.assertEquals(0, failedMigrations);
+        }
+    }
+
+    @Test
+    public void testSlotClaimsBackfillUsesConfiguredBuffers() {
+        // a database stored before the slot claims
+        Flyway flyway = Flyway.configure().dataSource("jdbc:h2:file:" + dataDir + "/meetingplanner", "sa", "")
+                .target("3").load();
+        flyway.migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(flyway.getConfiguration().getDataSource());
+        jdbcTemplate.update("insert into rooms (name, max_capacity) values ('E1001', 23)");
+        jdbcTemplate.update("insert into reservations (id, reservation_number, date, start_time, end_time, type, attendees,"
+                + " reserved_by, room_name) values (1, 1, ?, '10:00', '11:00', 'RS', 2, 'durable', 'E1001')", DATE);
+
+        // 30 minutes before and 90 minutes after: the 10:00 - 11:00 meeting claims its room until 13:00
+        try (ConfigurableApplicationContext context = start("--meetingplanner.buffer.before=30m",
+                "--meetingplanner.buffer.after=90m")) {
+            Assertions.assertEquals(List.of(20, 21, 22, 23, 24, 25), context.getBean(JdbcTemplate.class)
+                    .queryForList("select slot from slot_claims where reservation_id = 1 order by slot", Integer.class));
+        }
+    }
+
+    private ConfigurableApplicationContext start(String... args) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.profiles.active=durable",
+                "--meetingplanner.data-dir=" + dataDir,
+                "--spring.main.web-application-type=none",
+                "--spring.jpa.show-sql=false"));
+        arguments.addAll(List.of(args));
+        return SpringApplication.run(MeetingplannerApplication.class, arguments.toArray(String[]::new));
+    }
+}
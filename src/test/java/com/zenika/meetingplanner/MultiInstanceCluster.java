@@ -0,0 +1,80 @@
+package com.zenika.meetingplanner;
+
+import org.h2.tools.Server;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Several instances of the application in the same JVM, each with its own web server, caches and
+ * occupancy index, sharing one H2 database in server mode. The schema is created by the migrations
+ * of the durable profile, as in a real deployment.
+ */
+public class MultiInstanceCluster implements AutoCloseable {
+
+    private final Server server;
+    private final String url;
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    public MultiInstanceCluster(String database) throws SQLException {
+        server = Server.createTcpServer("-tcpPort", String.valueOf(freePort()), "-ifNotExists").start();
+        url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:" + database + ";DB_CLOSE_DELAY=-1";
+    }
+
+    /**
+     * Start one more instance, the first one migrates the schema and seeds the catalog
+     * @return The base URL of the instance
+     */
+    public String startNode() {
+        ConfigurableApplicationContext context = SpringApplication.run(MeetingplannerApplication.class,
+                "--spring.profiles.active=durable",
+                "--spring.datasource.url=" + url,
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN");
+        nodes.add(context);
+        return baseUrl(nodes.size() - 1);
+    }
+
+    /**
+     * Get the base URL of an instance
+     * @param node The index of the instance, in start order
+     * @return The base URL
+     */
+    public String baseUrl(int node) {
+        return "http://localhost:" + nodes.get(node).getEnvironment().getProperty("local.server.port");
+    }
+
+    /**
+     * Get the application context of an instance
+     * @param node The index of the instance, in start order
+     * @return The application context
+     */
+    public ConfigurableApplicationContext context(int node) {
+        return nodes.get(node);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    @Override
+    public void close() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+        server.stop();
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.zenika.meetingplanner;
+
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.repository.ReservationRepository;
+import com.zenika.meetingplanner.service.RoomOccupancyIndex;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Throughput of POST /api/v1/reservations from one to N instances sharing one H2 server database,
+ * excluded from the default build and run with
+ * mvn -Pload-test test -Dtest=MultiInstanceLoadTest -Dload.nodes=4 -Dload.clients=32 -Dload.requests=2000
+ * Each round adds an instance and books its own week, the requests being spread over the instances.
+ * It then checks that no two stored reservations break the cleanup buffers of a room.
+ */
+@Tag("load")
+class MultiInstanceLoadTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY)).plusWeeks(1);
+    private static final int DAYS = 5;
+    private static final String[] TYPES = {"VC", "SPEC", "RC", "RS"};
+
+    @Test
+    public void testThroughputScaling() throws Exception {
+        int nodes = Integer.getInteger("load.nodes", 3);
+        int clients = Integer.getInteger("load.clients", 32);
+        int requests = Integer.getInteger("load.requests", 2000);
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+        try (MultiInstanceCluster cluster = new MultiInstanceCluster("multiinstanceload")) {
+            System.out.printf("%n%6s %8s %10s %10s %10s%n", "nodes", "created", "req/s", "p50 ms", "p99 ms");
+            for (int round = 0; round < nodes; round++) {
+                cluster.startNode();
+                LocalDate week = FIRST_DAY.plusWeeks(round);
+                List<String> baseUrls = new ArrayList<>();
+                for (int node = 0; node < cluster.size(); node++) {
+                    baseUrls.add(cluster.baseUrl(node));
+                }
+                run(client, baseUrls, week, clients, requests);
+            }
+            RoomOccupancyIndex occupancyIndex = cluster.context(0).getBean(RoomOccupancyIndex.class);
+            assertNoConflict(cluster.context(0).getBean(ReservationRepository.class).findAll(),
+                    occupancyIndex.getBufferBefore().plus(occupancyIndex.getBufferAfter()));
+        }
+    }
+
+    private void run(HttpClient client, List<String> baseUrls, LocalDate week, int clients, int requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> results = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < requests; i++) {
+            HttpRequest request = request(baseUrls.get(i % baseUrls.size()), week, random);
+            results.add(executor.submit(() -> {
+                start.await();
+                long begin = System.nanoTime();
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                return new long[]{System.nanoTime() - begin, response.statusCode()};
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        List<Long> latencies = new ArrayList<>();
+        int created = 0;
+        for (Future<long[]> result : results) {
+            long[] sample = result.get();
+            Assertions.assertTrue(sample[1] == 201 || sample[1] == 404, "Unexpected status " + sample[1]);
+            latencies.add(sample[0]);
+            if (sample[1] == 201)
+                created++;
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        executor.shutdown();
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("%6d %8d %10.1f %10.2f %10.2f%n", baseUrls.size(), created, requests / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99));
+    }
+
+    private static HttpRequest request(String baseUrl, LocalDate week, Random random) {
+        LocalDate date = week.plusDays(random.nextInt(DAYS));
+        LocalTime startTime = LocalTime.of(8 + random.nextInt(13), 0);
+        LocalTime endTime = startTime.plusMinutes(30L * (1 + random.nextInt(4)));
+        String body = String.format("{\"attendees\":%d,\"type\":\"%s\",\"date\":\"%s\",\"startTime\":\"%s\",\"endTime\":\"%s\",\"reservedBy\":\"load\"}",
+                1 + random.nextInt(10), TYPES[random.nextInt(TYPES.length)], date, startTime, endTime);
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/reservations"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private static void assertNoConflict(List<Reservation> reservations, Duration gap) {
+        Map<List<Object>, List<Reservation>> byRoomDay = reservations.stream()
+                .collect(Collectors.groupingBy(reservation -> List.of(reservation.getRoom().getName(), reservation.getDate())));
+        for (List<Reservation> roomDay : byRoomDay.values()) {
+            roomDay.sort(Comparator.comparing(Reservation::getStartTime));
+            for (int i = 1; i < roomDay.size(); i++) {
+                Reservation previous = roomDay.get(i - 1);
+                Reservation next = roomDay.get(i);
+                Assertions.assertFalse(next.getStartTime().isBefore(previous.getEndTime().plus(gap)),
+                        "Conflict in room " + next.getRoom().getName() + " on " + next.getDate() + " between "
+                                + previous.getStartTime() + " and " + next.getStartTime());
+            }
+        }
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1e6;
+    }
+}
@@ -0,0 +1,92 @@
+package com.zenika.meetingplanner;
+
+import com.zenika.meetingplanner.repository.ReservationRepository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Two instances booking against one H2 server database.
+ * Only E1001 can host 12 attendees, so every request below competes for the same room.
+ */
+class MultiInstanceTest {
+
+    private static final LocalDate DATE = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.THURSDAY)).plusWeeks(2);
+    private static final int REQUESTS = 20;
+
+    private static MultiInstanceCluster cluster;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeAll
+    public static void setUp() throws Exception {
+        cluster = new MultiInstanceCluster("multiinstance");
+        cluster.startNode();
+        cluster.startNode();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        cluster.close();
+    }
+
+    @Test
+    public void testOneSlotIsBookedOnceAcrossInstances() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            int node = i % cluster.size();
+            statuses.add(executor.submit(() -> {
+                start.await();
+                return store(node, DATE, 10);
+            }));
+        }
+        start.countDown();
+        int created = 0;
+        for (Future<Integer> status : statuses) {
+            int code = status.get();
+            Assertions.assertTrue(code == 201 || code == 404, "Unexpected status " + code);
+            if (code == 201)
+                created++;
+        }
+        executor.shutdown();
+        Assertions.assertEquals(1, created);
+    }
+
+    @Test
+    public void testCleanupBufferIsKeptAcrossInstances() throws Exception {
+        LocalDate date = DATE.plusDays(1);
+        Assertions.assertEquals(201, store(0, date, 10));
+        // the occupancy index of the second instance does not know the first booking, its claims do
+        Assertions.assertEquals(404, store(1, date, 11));
+        Assertions.assertEquals(201, store(1, date, 12));
+        Assertions.assertEquals(404, store(0, date, 13));
+        Assertions.assertEquals(2, cluster.context(0).getBean(ReservationRepository.class).findByDate(date).size());
+    }
+
+    private int store(int node, LocalDate date, int hour) throws Exception {
+        String json = String.format("{\"attendees\":12,\"type\":\"RS\",\"date\":\"%s\",\"startTime\":\"%02d:00\",\"reservedBy\":\"node%d\"}",
+                date, hour, node);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(cluster.baseUrl(node) + "/api/v1/reservations"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
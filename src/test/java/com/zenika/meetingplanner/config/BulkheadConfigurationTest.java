@@ -0,0 +1,55 @@
+package com.zenika.meetingplanner.config;
+
+import com.zenika.meetingplanner.helper.Bulkhead;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The bulkhead of the virtual thread mode, enabled here on platform threads
+ */
+@SpringBootTest(properties = {"meetingplanner.bulkhead.enabled=true", "meetingplanner.bulkhead.timeout=100ms"})
+@AutoConfigureMockMvc
+class BulkheadConfigurationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private Bulkhead bulkhead;
+
+    @Test
+    public void testBulkheadHasOnePermitPerConnection() {
+        Assertions.assertEquals(10, bulkhead.getCapacity());
+    }
+
+    @Test
+    public void testApiRequestsWaitForPermit() throws Exception {
+        mockMvc.perform(get("/api/v1/reservations")).andExpect(status().isOk());
+        Assertions.assertEquals(bulkhead.getCapacity(), bulkhead.getAvailablePermits());
+
+        int taken = 0;
+        try {
+            while (bulkhead.tryAcquire(Duration.ZERO))
+                taken++;
+            mockMvc.perform(get("/api/v1/reservations")).andExpect(status().isServiceUnavailable());
+            mockMvc.perform(get("/api/v1/reservations/events").accept(MediaType.TEXT_EVENT_STREAM))
+                    .andExpect(request().asyncStarted());
+        } finally {
+            for (int i = 0; i < taken; i++)
+                bulkhead.release();
+        }
+        Assertions.assertEquals(bulkhead.getCapacity(), bulkhead.getAvailablePermits());
+    }
+}
@@ -0,0 +1,111 @@
+package com.zenika.meetingplanner.config;
+
+import com.zenika.meetingplanner.helper.Bulkhead;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.FilterChain;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class BulkheadFilterTest {
+
+    private static final Duration TIMEOUT = Duration.ofMillis(50);
+
+    @Test
+    public void testPermitIsHeldDuringRequest() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(2);
+        AtomicInteger availableDuringRequest = new AtomicInteger(-1);
+        FilterChain chain = (request, response) -> availableDuringRequest.set(bulkhead.getAvailablePermits());
+
+        new BulkheadFilter(bulkhead, TIMEOUT).doFilter(request("/api/v1/reservations"), new MockHttpServletResponse(), chain);
+
+        Assertions.assertEquals(1, availableDuringRequest.get());
+        Assertions.assertEquals(2, bulkhead.getAvailablePermits());
+    }
+
+    @Test
+    public void testPermitIsReleasedWhenRequestFails() {
+        Bulkhead bulkhead = new Bulkhead(1);
+        FilterChain chain = (request, response) -> {
+            throw new IllegalStateException("database down");
+        };
+
+        Assertions.assertThrows(IllegalStateException.class, () -> new BulkheadFilter(bulkhead, TIMEOUT)
+                .doFilter(request("/api/v1/reservations"), new MockHttpServletResponse(), chain));
+        Assertions.assertEquals(1, bulkhead.getAvailablePermits());
+    }
+
+    @Test
+    public void testAsyncRequestHoldsPermitUntilComplete() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v3/reservations");
+        request.setAsyncSupported(true);
+        FilterChain chain = (servletRequest, servletResponse) -> servletRequest.startAsync();
+
+        new BulkheadFilter(bulkhead, TIMEOUT).doFilter(request, new MockHttpServletResponse(), chain);
+        Assertions.assertEquals(0, bulkhead.getAvailablePermits());
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        Assertions.assertEquals(1, bulkhead.getAvailablePermits());
+    }
+
+    @Test
+    public void testRequestIsRejectedAfterTimeout() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1);
+        Assertions.assertTrue(bulkhead.tryAcquire(TIMEOUT));
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new BulkheadFilter(bulkhead, TIMEOUT).doFilter(request("/api/v1/reservations"), response, chain);
+
+        Assertions.assertEquals(503, response.getStatus());
+        Assertions.assertEquals("Service surchargé, veuillez réessayer", response.getContentAsString());
+        Assertions.assertNull(chain.getRequest());
+        Assertions.assertEquals(0, bulkhead.getAvailablePermits());
+    }
+
+    @Test
+    public void testEventStreamTakesNoPermit() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1);
+        Assertions.assertTrue(bulkhead.tryAcquire(TIMEOUT));
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new BulkheadFilter(bulkhead, TIMEOUT).doFilter(request("/api/v1/reservations/events"), response, chain);
+
+        Assertions.assertEquals(200, response.getStatus());
+        Assertions.assertNotNull(chain.getRequest());
+        Assertions.assertEquals(0, bulkhead.getAvailablePermits());
+    }
+
+    @Test
+    public void testStreamingEndpointsTakeNoPermit() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1);
+        Assertions.assertTrue(bulkhead.tryAcquire(TIMEOUT));
+        MockHttpServletRequest v1Stream = request("/api/v1/reservations");
+        v1Stream.setParameter("stream", "true");
+
+        for (MockHttpServletRequest request : List.of(v1Stream, request("/api/v3/reservations"),
+                new MockHttpServletRequest("POST", "/api/v2/reservations/import"))) {
+            MockFilterChain chain = new MockFilterChain();
+            new BulkheadFilter(bulkhead, TIMEOUT).doFilter(request, new MockHttpServletResponse(), chain);
+            Assertions.assertNotNull(chain.getRequest(), request.getRequestURI());
+        }
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new BulkheadFilter(bulkhead, TIMEOUT).doFilter(request("/api/v1/reservations"), response, new MockFilterChain());
+        Assertions.assertEquals(503, response.getStatus());
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+}
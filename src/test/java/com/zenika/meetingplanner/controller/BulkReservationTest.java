@@ -0,0 +1,177 @@
+package com.zenika.meetingplanner.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zenika.meetingplanner.controller.api.v1.ReservationController;
+import com.zenika.meetingplanner.model.IdempotencyRecord;
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.repository.IdempotencyRecordRepository;
+import com.zenika.meetingplanner.repository.ReservationRepository;
+import com.zenika.meetingplanner.request.StoreReservationRequest;
+import com.zenika.meetingplanner.service.BookingService;
+import com.zenika.meetingplanner.service.IdempotencyService;
+import com.zenika.meetingplanner.service.MeetingPlanner;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BulkReservationTest {
+
+    private static final LocalDate DATE = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.WEDNESDAY)).plusWeeks(22);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private String reservedBy;
+
+    @BeforeEach
+    public void setUp() {
+        reservedBy = UUID.randomUUID().toString();
+    }
+
+    @Test
+    public void testRetryReplaysOriginalResult() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String json = "[" + reservationJson(9) + "," + reservationJson(11) + "," + reservationJson(13) + "]";
+
+        MockHttpServletResponse first = bulk(json, key).andExpect(status().isOk()).andReturn().getResponse();
+        MockHttpServletResponse retry = bulk(json, key).andExpect(status().isOk()).andReturn().getResponse();
+
+        Assertions.assertNull(first.getHeader(ReservationController.IDEMPOTENT_REPLAYED_HEADER));
+        Assertions.assertEquals("true", retry.getHeader(ReservationController.IDEMPOTENT_REPLAYED_HEADER));
+        JsonNode result = objectMapper.readTree(first.getContentAsString());
+        Assertions.assertEquals(3, result.get("reservations").size());
+        Assertions.assertEquals(result, objectMapper.readTree(retry.getContentAsString()));
+
+        String stored = mockMvc.perform(get("/api/v1/reservations").param("reservedBy", reservedBy))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        Assertions.assertEquals(3, objectMapper.readTree(stored).size());
+    }
+
+    @Test
+    public void testKeyReusedForAnotherBatchIsRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+        bulk("[" + reservationJson(15) + "]", key).andExpect(status().isOk());
+        bulk("[" + reservationJson(17) + "]", key).andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    public void testInvalidMeetingRejectsBatch() throws Exception {
+        String json = "[" + reservationJson(9) + "," + reservationJson(7) + "]";
+        String content = bulk(json, UUID.randomUUID().toString()).andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+        Assertions.assertTrue(content.startsWith("Réunion 2 : "));
+    }
+
+    @Test
+    public void testStaleClaimIsTakenOver() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String json = "[" + reservationJson(10) + "]";
+        idempotencyRecordRepository.save(claim(key, json, Instant.now().minus(Duration.ofHours(1))));
+
+        MockHttpServletResponse retry = bulk(json, key).andExpect(status().isOk()).andReturn().getResponse();
+
+        Assertions.assertNull(retry.getHeader(ReservationController.IDEMPOTENT_REPLAYED_HEADER));
+        IdempotencyRecord record = idempotencyRecordRepository.findById(key).orElseThrow();
+        Assertions.assertEquals(200, record.getStatus());
+        Assertions.assertEquals(objectMapper.readTree(retry.getContentAsString()), objectMapper.readTree(record.getResponseBody()));
+    }
+
+    @Test
+    public void testRecentClaimIsInProgress() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String json = "[" + reservationJson(12) + "]";
+        idempotencyRecordRepository.save(claim(key, json, Instant.now()));
+
+        bulk(json, key).andExpect(status().isConflict());
+    }
+
+    @Test
+    public void testLostClaimRollsBackReservations() {
+        String key = UUID.randomUUID().toString();
+        Assertions.assertNull(idempotencyService.claim(key, "hash", "token"));
+        IdempotencyRecord record = idempotencyRecordRepository.findById(key).orElseThrow();
+        record.setClaimedBy("another token");
+        idempotencyRecordRepository.save(record);
+
+        Reservation meeting = Reservation.builder().attendees(2).type("RS").date(DATE)
+                .startTime(LocalTime.of(14, 0)).endTime(LocalTime.of(15, 0)).reservedBy(reservedBy).build();
+        Assertions.assertThrows(ConcurrencyFailureException.class, () -> bookingService.bookAll(List.of(meeting),
+                MeetingPlanner.Mode.GREEDY, plan -> idempotencyService.complete(key, "token", 200, "{}")));
+
+        Assertions.assertTrue(reservationRepository.findByDate(DATE).stream().noneMatch(r -> reservedBy.equals(r.getReservedBy())));
+        Assertions.assertNull(idempotencyRecordRepository.findById(key).orElseThrow().getStatus());
+    }
+
+    @Test
+    public void testPurgeDeletesKeysPastRetention() {
+        String old = UUID.randomUUID().toString();
+        String recent = UUID.randomUUID().toString();
+        idempotencyRecordRepository.save(IdempotencyRecord.builder().key(old).requestHash("hash").status(200)
+                .responseBody("{}").createdAt(Instant.now().minus(Duration.ofDays(2))).build());
+        idempotencyRecordRepository.save(IdempotencyRecord.builder().key(recent).requestHash("hash").status(200)
+                .responseBody("{}").createdAt(Instant.now()).build());
+
+        idempotencyService.purge();
+
+        Assertions.assertFalse(idempotencyRecordRepository.existsById(old));
+        Assertions.assertTrue(idempotencyRecordRepository.existsById(recent));
+    }
+
+    private IdempotencyRecord claim(String key, String json, Instant createdAt) throws Exception {
+        List<StoreReservationRequest> requests = objectMapper.readValue(json, new TypeReference<>() {});
+        return IdempotencyRecord.builder().key(key).claimedBy("crashed instance").createdAt(createdAt)
+                .requestHash(IdempotencyService.hash(MeetingPlanner.Mode.GREEDY + objectMapper.writeValueAsString(requests)))
+                .build();
+    }
+
+    private ResultActions bulk(String json, String key) throws Exception {
+        return mockMvc.perform(post("/api/v1/reservations/bulk").header(ReservationController.IDEMPOTENCY_KEY_HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON).content(json));
+    }
+
+    private String reservationJson(int hour) {
+        return String.format("{\"attendees\":2,\"type\":\"RS\",\"date\":\"%s\",\"startTime\":\"%02d:00\",\"reservedBy\":\"%s\"}",
+                DATE, hour, reservedBy);
+    }
+}
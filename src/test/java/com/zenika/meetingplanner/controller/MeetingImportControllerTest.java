@@ -0,0 +1,117 @@
+package com.zenika.meetingplanner.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MeetingImportControllerTest {
+
+    private static final LocalDate DATE = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.TUESDAY)).plusWeeks(16);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testImportNdjsonByChunks() throws Exception {
+        String body = String.join("\n",
+                meetingJson(1, DATE, 8, "RS", 2),
+                meetingJson(2, DATE.with(TemporalAdjusters.next(DayOfWeek.SATURDAY)), 8, "RS", 2),
+                meetingJson(3, DATE, 10, "RS", 100),
+                meetingJson(4, DATE, 12, "RS", 2),
+                meetingJson(5, DATE, 14, "RS", 2));
+
+        List<JsonNode> lines = importPlan(MediaType.APPLICATION_NDJSON, body, 2);
+
+        List<JsonNode> entries = lines.stream().filter(line -> line.has("status")).toList();
+        Assertions.assertEquals(5, entries.size());
+        Assertions.assertEquals("INVALID", entry(entries, 2).get("status").asText());
+        Assertions.assertEquals("Impossible de réserver le week-end", entry(entries, 2).get("reason").asText());
+        Assertions.assertEquals("UNPLACED", entry(entries, 3).get("status").asText());
+        Assertions.assertEquals("NO_ROOM_LARGE_ENOUGH", entry(entries, 3).get("reason").asText());
+        Assertions.assertEquals("BOOKED", entry(entries, 5).get("status").asText());
+        Assertions.assertEquals(5, entry(entries, 5).get("reservation").get("reservationNumber").asInt());
+
+        List<JsonNode> progress = lines.stream().filter(line -> line.has("processed")).toList();
+        Assertions.assertEquals(3, progress.size());
+        JsonNode last = progress.get(progress.size() - 1);
+        Assertions.assertTrue(last.get("done").asBoolean());
+        Assertions.assertEquals(5, last.get("processed").asInt());
+        Assertions.assertEquals(3, last.get("booked").asInt());
+        Assertions.assertEquals(1, last.get("unplaced").asInt());
+        Assertions.assertEquals(1, last.get("invalid").asInt());
+    }
+
+    @Test
+    public void testImportJsonArray() throws Exception {
+        String body = "[" + meetingJson(1, DATE, 17, "RS", 3) + "," + meetingJson(2, DATE, 17, "RS", 3) + "]";
+
+        List<JsonNode> lines = importPlan(MediaType.APPLICATION_JSON, body, 500);
+
+        JsonNode last = lines.get(lines.size() - 1);
+        Assertions.assertTrue(last.get("done").asBoolean());
+        Assertions.assertEquals(2, last.get("booked").asInt());
+    }
+
+    @Test
+    public void testImportReportsMalformedJson() throws Exception {
+        List<JsonNode> lines = importPlan(MediaType.APPLICATION_NDJSON, "{\"meeting\": 1, ", 500);
+
+        Assertions.assertTrue(lines.get(lines.size() - 1).has("error"));
+    }
+
+    @Test
+    public void testImportRejectsInvalidChunkSize() throws Exception {
+        mockMvc.perform(post("/api/v2/reservations/import").param("chunkSize", "0")
+                        .contentType(MediaType.APPLICATION_NDJSON).content(""))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<JsonNode> importPlan(MediaType contentType, String body, int chunkSize) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v2/reservations/import")
+                        .param("chunkSize", String.valueOf(chunkSize))
+                        .contentType(contentType).content(body))
+                .andExpect(request().asyncStarted()).andReturn();
+        result.getAsyncResult();
+        String content = mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : content.trim().split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private static JsonNode entry(List<JsonNode> entries, int line) {
+        return entries.stream().filter(entry -> entry.get("line").asInt() == line).findFirst().orElseThrow();
+    }
+
+    private static String meetingJson(int meeting, LocalDate date, int hour, String type, int attendees) {
+        return String.format("{\"meeting\":%d,\"date\":\"%s\",\"time\":\"%02d:00\",\"type\":\"%s\",\"attendees\":%d,\"reservedBy\":\"import\"}",
+                meeting, date, hour, type, attendees);
+    }
+}
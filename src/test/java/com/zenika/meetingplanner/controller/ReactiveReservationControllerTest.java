@@ -0,0 +1,104 @@
+package com.zenika.meetingplanner.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zenika.meetingplanner.service.BookingService;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReactiveReservationControllerTest {
+
+    private static final LocalDate DATE = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.FRIDAY)).plusWeeks(14);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String reservedBy;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        reservedBy = UUID.randomUUID().toString();
+        for (int hour = 8; hour <= 12; hour += 2) {
+            perform(post("/api/v3/reservations").contentType(MediaType.APPLICATION_JSON).content(reservationJson(hour)),
+                    status().isCreated());
+        }
+    }
+
+    @Test
+    public void testIndexStreamsReservations() throws Exception {
+        String content = perform(get("/api/v3/reservations").param("reservedBy", reservedBy)
+                .accept(MediaType.APPLICATION_NDJSON), status().isOk());
+        String[] lines = content.trim().split("\n");
+        Assertions.assertEquals(3, lines.length);
+        Assertions.assertEquals("12:00", objectMapper.readTree(lines[2]).get("startTime").asText());
+    }
+
+    @Test
+    public void testIndexRejectsInvalidCursor() throws Exception {
+        perform(get("/api/v3/reservations").param("cursor", "invalid"), status().isBadRequest());
+    }
+
+    @Test
+    public void testBatchRejectsTooManyMeetings() throws Exception {
+        String json = "[" + String.join(",", Collections.nCopies(BookingService.MAX_BULK_SIZE + 1, reservationJson(9))) + "]";
+        String content = perform(post("/api/v3/reservations/batch").contentType(MediaType.APPLICATION_JSON).content(json),
+                status().isBadRequest());
+        Assertions.assertEquals("Le lot doit contenir entre 1 et " + BookingService.MAX_BULK_SIZE + " réservations", content);
+    }
+
+    @Test
+    public void testStoreRejectsWeekend() throws Exception {
+        String json = String.format("{\"attendees\":2,\"type\":\"RS\",\"date\":\"%s\",\"startTime\":\"09:00\",\"reservedBy\":\"%s\"}",
+                DATE.plusDays(1), reservedBy);
+        perform(post("/api/v3/reservations").contentType(MediaType.APPLICATION_JSON).content(json), status().isBadRequest());
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        String json = "[" + reservationJson(15) + "," + reservationJson(17) + "]";
+        String content = perform(post("/api/v3/reservations/batch").param("mode", "maximize")
+                .contentType(MediaType.APPLICATION_JSON).content(json), status().isOk());
+        JsonNode result = objectMapper.readTree(content);
+        Assertions.assertEquals(2, result.get("reservations").size());
+        Assertions.assertEquals(0, result.get("unplaced").size());
+    }
+
+    private String perform(RequestBuilder request, ResultMatcher expectedStatus) throws Exception {
+        MvcResult result = mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+        result.getAsyncResult();
+        return mockMvc.perform(asyncDispatch(result)).andExpect(expectedStatus)
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private String reservationJson(int hour) {
+        return String.format("{\"attendees\":2,\"type\":\"RS\",\"date\":\"%s\",\"startTime\":\"%02d:00\",\"reservedBy\":\"%s\"}",
+                DATE, hour, reservedBy);
+    }
+}
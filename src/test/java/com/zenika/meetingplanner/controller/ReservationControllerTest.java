@@ -0,0 +1,119 @@
+package com.zenika.meetingplanner.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zenika.meetingplanner.controller.api.v1.ReservationController;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReservationControllerTest {
+
+    private static final LocalDate DATE = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.WEDNESDAY)).plusWeeks(10);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String reservedBy;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        reservedBy = UUID.randomUUID().toString();
+        for (int hour = 8; hour <= 16; hour += 2) {
+            String json = String.format("{\"attendees\":2,\"type\":\"RS\",\"date\":\"%s\",\"startTime\":\"%02d:00\",\"reservedBy\":\"%s\"}",
+                    DATE, hour, reservedBy);
+            mockMvc.perform(post("/api/v1/reservations").contentType(MediaType.APPLICATION_JSON).content(json))
+                    .andExpect(status().isCreated());
+        }
+    }
+
+    @Test
+    public void testIndexIsPaginatedWithCursor() throws Exception {
+        List<String> startTimes = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/api/v1/reservations").param("reservedBy", reservedBy).param("limit", "2");
+            if (cursor != null)
+                request.param("cursor", cursor);
+            MockHttpServletResponse response = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse();
+            for (JsonNode node : objectMapper.readTree(response.getContentAsString())) {
+                startTimes.add(node.get("startTime").asText());
+            }
+            cursor = response.getHeader(ReservationController.NEXT_CURSOR_HEADER);
+            pages++;
+        } while (cursor != null);
+
+        Assertions.assertEquals(3, pages);
+        Assertions.assertEquals(List.of("08:00", "10:00", "12:00", "14:00", "16:00"), startTimes);
+    }
+
+    @Test
+    public void testIndexFiltersByDateRange() throws Exception {
+        String content = mockMvc.perform(get("/api/v1/reservations").param("reservedBy", reservedBy)
+                        .param("from", DATE.plusDays(1).toString()))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        Assertions.assertEquals(0, objectMapper.readTree(content).size());
+    }
+
+    @Test
+    public void testIndexRejectsInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/reservations").param("cursor", "invalid"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testStream() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/reservations").param("reservedBy", reservedBy).param("stream", "true"))
+                .andExpect(request().asyncStarted()).andReturn();
+        result.getAsyncResult();
+        String content = mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = content.trim().split("\n");
+        Assertions.assertEquals(5, lines.length);
+        Assertions.assertEquals("16:00", objectMapper.readTree(lines[4]).get("startTime").asText());
+    }
+
+    @Test
+    public void testStoreWithEndTime() throws Exception {
+        String json = String.format("{\"attendees\":2,\"type\":\"RS\",\"date\":\"%s\",\"startTime\":\"09:00\",\"endTime\":\"09:30\",\"reservedBy\":\"%s\"}",
+                DATE.plusDays(1), reservedBy);
+        String content = mockMvc.perform(post("/api/v1/reservations").contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        Assertions.assertEquals("09:30", objectMapper.readTree(content).get("endTime").asText());
+    }
+
+    @Test
+    public void testStoreRejectsInvalidDuration() throws Exception {
+        String json = String.format("{\"attendees\":2,\"type\":\"RS\",\"date\":\"%s\",\"startTime\":\"09:00\",\"endTime\":\"09:10\",\"reservedBy\":\"%s\"}",
+                DATE.plusDays(1), reservedBy);
+        mockMvc.perform(post("/api/v1/reservations").contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isBadRequest());
+    }
+}
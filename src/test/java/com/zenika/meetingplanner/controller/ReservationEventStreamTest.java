@@ -0,0 +1,128 @@
+package com.zenika.meetingplanner.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zenika.meetingplanner.controller.api.v1.ReservationController;
+import com.zenika.meetingplanner.model.ReservationEvent;
+import com.zenika.meetingplanner.service.ReservationEventDispatcher;
+import com.zenika.meetingplanner.service.ReservationEventService;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReservationEventStreamTest {
+
+    private static final LocalDate DATE = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.TUESDAY)).plusWeeks(24);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ReservationEventService reservationEventService;
+
+    @Autowired
+    private ReservationEventDispatcher reservationEventDispatcher;
+
+    private String reservedBy;
+
+    @BeforeEach
+    public void setUp() {
+        reservedBy = UUID.randomUUID().toString();
+    }
+
+    @Test
+    public void testSaveWritesEventInOutbox() throws Exception {
+        long lastId = reservationEventService.findLastId();
+        long reservationId = store(DATE, 9);
+
+        List<ReservationEvent> events = reservationEventService.findAfter(lastId, 10);
+        Assertions.assertEquals(1, events.size());
+        Assertions.assertEquals(ReservationEvent.Type.CREATED.name(), events.get(0).getType());
+        Assertions.assertEquals(reservationId, events.get(0).getReservationId());
+        Assertions.assertEquals(reservedBy, objectMapper.readTree(events.get(0).getPayload()).get("reservedBy").asText());
+    }
+
+    @Test
+    public void testResumeFromLastEventId() throws Exception {
+        long lastId = reservationEventService.findLastId();
+        long first = store(DATE.plusDays(1), 9);
+        long second = store(DATE.plusDays(1), 11);
+        List<ReservationEvent> events = reservationEventService.findAfter(lastId, 2);
+        long firstEventId = events.get(0).getId();
+        dispatchUpTo(events.get(1).getId());
+
+        String stream = subscribe(firstEventId).getContentAsString();
+
+        Assertions.assertFalse(stream.contains("\"id\":" + first + ","));
+        Assertions.assertTrue(stream.contains("\"id\":" + second + ","));
+        Assertions.assertTrue(stream.contains("event:created"));
+        Assertions.assertTrue(stream.contains("id:" + events.get(1).getId() + "\n"));
+    }
+
+    @Test
+    public void testLiveEventsAreDispatched() throws Exception {
+        long lastId = reservationEventService.findLastId();
+        MockHttpServletResponse response = subscribe(null);
+
+        long reservationId = store(DATE.plusDays(2), 9);
+        dispatchUpTo(reservationEventService.findAfter(lastId, 1).get(0).getId());
+
+        // live events are sent by a sender thread of the subscriber
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!response.getContentAsString().contains("\"id\":" + reservationId + ",") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Assertions.assertTrue(response.getContentAsString().contains("\"id\":" + reservationId + ","));
+    }
+
+    private MockHttpServletResponse subscribe(Long lastEventId) throws Exception {
+        MockHttpServletRequestBuilder builder = get("/api/v1/reservations/events").accept(MediaType.TEXT_EVENT_STREAM);
+        if (lastEventId != null)
+            builder.header(ReservationController.LAST_EVENT_ID_HEADER, lastEventId);
+        return mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn().getResponse();
+    }
+
+    /**
+     * Dispatch until an event is sent, an offset left behind by a rolled back transaction of another test
+     * holds the dispatch back for the gap timeout
+     */
+    private void dispatchUpTo(long eventId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (reservationEventDispatcher.getLastDispatchedId() < eventId && System.currentTimeMillis() < deadline) {
+            if (reservationEventDispatcher.dispatch() == 0)
+                Thread.sleep(100);
+        }
+        Assertions.assertTrue(reservationEventDispatcher.getLastDispatchedId() >= eventId);
+    }
+
+    private long store(LocalDate date, int hour) throws Exception {
+        String json = String.format("{\"attendees\":4,\"type\":\"RS\",\"date\":\"%s\",\"startTime\":\"%02d:00\",\"reservedBy\":\"%s\"}",
+                date, hour, reservedBy);
+        String body = mockMvc.perform(post("/api/v1/reservations").contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+}
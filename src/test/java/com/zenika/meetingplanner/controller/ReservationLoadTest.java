@@ -0,0 +1,204 @@
+package com.zenika.meetingplanner.controller;
+
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.repository.ReservationRepository;
+import com.zenika.meetingplanner.service.RoomOccupancyIndex;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Load harness of the reservation API, excluded from the default build and run with
+ * mvn -Pload-test test -Dload.clients=32 -Dload.requests=2000 -Dload.mix=post=70,get=25,v2=5
+ * (operations: post, get, v2, v3post, v3get)
+ * It reports the throughput and latency percentiles of each operation, then checks that the
+ * stored reservations never share a room slot nor break the cleanup buffers.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ReservationLoadTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY)).plusWeeks(30);
+    private static final int DAYS = 5;
+    private static final String[] TYPES = {"VC", "SPEC", "RC", "RS"};
+
+    private enum Operation {
+        POST, GET, V2, V3POST, V3GET
+    }
+
+    private record Sample(Operation operation, long nanos, int status) {
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RoomOccupancyIndex occupancyIndex;
+
+    @Test
+    public void testLoad() throws Exception {
+        int clients = Integer.getInteger("load.clients", 32);
+        int requests = Integer.getInteger("load.requests", 2000);
+        Map<Operation, Integer> mix = parseMix(System.getProperty("load.mix", "post=70,get=25,v2=5"));
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Sample> samples = new ConcurrentLinkedQueue<>();
+        List<Future<?>> results = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < requests; i++) {
+            Operation operation = pick(mix, random);
+            HttpRequest request = request(operation, random);
+            results.add(executor.submit(() -> {
+                start.await();
+                long begin = System.nanoTime();
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                samples.add(new Sample(operation, System.nanoTime() - begin, response.statusCode()));
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+
+        report(new ArrayList<>(samples), elapsed, clients);
+
+        List<Sample> failures = samples.stream().filter(sample -> !isExpected(sample)).toList();
+        Assertions.assertTrue(failures.isEmpty(), failures.size() + " unexpected responses, first: " +
+                (failures.isEmpty() ? null : failures.get(0)));
+        assertNoConflict(reservationRepository.findAll());
+    }
+
+    /**
+     * Check that two reservations of a room and day never overlap, and that the room is given
+     * the cleanup buffers between two meetings, as required by isRoomAvailable
+     * @param reservations Every stored reservation
+     */
+    private void assertNoConflict(List<Reservation> reservations) {
+        Duration gap = occupancyIndex.getBufferBefore().plus(occupancyIndex.getBufferAfter());
+        Map<List<Object>, List<Reservation>> byRoomDay = reservations.stream()
+                .collect(Collectors.groupingBy(reservation -> List.of(reservation.getRoom().getName(), reservation.getDate())));
+        for (List<Reservation> roomDay : byRoomDay.values()) {
+            roomDay.sort(Comparator.comparing(Reservation::getStartTime));
+            for (int i = 1; i < roomDay.size(); i++) {
+                Reservation previous = roomDay.get(i - 1);
+                Reservation next = roomDay.get(i);
+                Assertions.assertFalse(next.getStartTime().isBefore(previous.getEndTime().plus(gap)),
+                        "Conflict in room " + next.getRoom().getName() + " on " + next.getDate() + " between "
+                                + previous.getStartTime() + " and " + next.getStartTime());
+            }
+        }
+    }
+
+    private void report(List<Sample> samples, long elapsedNanos, int clients) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%n%d requests, %d clients, %.2f s, %.1f req/s%n", samples.size(), clients, seconds,
+                samples.size() / seconds);
+        System.out.printf("%-6s %8s %10s %10s %10s %10s%n", "op", "count", "req/s", "p50 ms", "p95 ms", "p99 ms");
+        Map<Operation, List<Sample>> byOperation = samples.stream()
+                .collect(Collectors.groupingBy(Sample::operation, () -> new EnumMap<>(Operation.class), Collectors.toList()));
+        for (Map.Entry<Operation, List<Sample>> entry : byOperation.entrySet()) {
+            long[] latencies = entry.getValue().stream().mapToLong(Sample::nanos).sorted().toArray();
+            System.out.printf("%-6s %8d %10.1f %10.2f %10.2f %10.2f%n", entry.getKey(), latencies.length,
+                    latencies.length / seconds, percentile(latencies, 0.50), percentile(latencies, 0.95),
+                    percentile(latencies, 0.99));
+        }
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1e6;
+    }
+
+    private static boolean isExpected(Sample sample) {
+        return switch (sample.operation()) {
+            case POST, V3POST -> sample.status() == 201 || sample.status() == 404;
+            case GET, V2, V3GET -> sample.status() == 200;
+        };
+    }
+
+    private HttpRequest request(Operation operation, Random random) {
+        String base = "http://localhost:" + port;
+        return switch (operation) {
+            case POST, V3POST -> {
+                LocalDate date = FIRST_DAY.plusDays(random.nextInt(DAYS));
+                LocalTime startTime = LocalTime.of(8 + random.nextInt(13), 0);
+                LocalTime endTime = startTime.plusMinutes(30L * (1 + random.nextInt(4)));
+                String body = String.format("{\"attendees\":%d,\"type\":\"%s\",\"date\":\"%s\",\"startTime\":\"%s\",\"endTime\":\"%s\",\"reservedBy\":\"load\"}",
+                        1 + random.nextInt(10), TYPES[random.nextInt(TYPES.length)], date, startTime, endTime);
+                String version = operation == Operation.POST ? "v1" : "v3";
+                yield HttpRequest.newBuilder(URI.create(base + "/api/" + version + "/reservations"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+            }
+            case GET -> HttpRequest.newBuilder(URI.create(base + "/api/v1/reservations?from=" + FIRST_DAY + "&limit=50"))
+                    .GET().build();
+            case V2 -> HttpRequest.newBuilder(URI.create(base + "/api/v2/reservations")).GET().build();
+            case V3GET -> HttpRequest.newBuilder(URI.create(base + "/api/v3/reservations?from=" + FIRST_DAY + "&to=" + FIRST_DAY))
+                    .header("Accept", "application/x-ndjson").GET().build();
+        };
+    }
+
+    private static Operation pick(Map<Operation, Integer> mix, Random random) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int draw = random.nextInt(total);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            draw -= entry.getValue();
+            if (draw < 0)
+                return entry.getKey();
+        }
+        throw new IllegalStateException();
+    }
+
+    /**
+     * Parse a request mix such as post=70,get=25,v2=5
+     * @param mix The weight of each operation
+     * @return The weights by operation
+     */
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        Arrays.stream(mix.split(",")).map(String::trim).filter(part -> !part.isEmpty()).forEach(part -> {
+            String[] pair = part.split("=");
+            weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+        });
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0)
+            throw new IllegalArgumentException("Invalid load.mix: " + mix);
+        return weights;
+    }
+}
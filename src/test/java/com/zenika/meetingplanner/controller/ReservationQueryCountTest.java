@@ -0,0 +1,82 @@
+package com.zenika.meetingplanner.controller;
+
+import com.zenika.meetingplanner.helper.StatementCounter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Count the SQL statements fired by each endpoint at the DataSource, JdbcTemplate batches included:
+ * a regression adding queries (N+1 selects on rooms, equipments or reservations, one insert per row)
+ * makes the budget fail.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(StatementCounter.class)
+class ReservationQueryCountTest {
+
+    private static final LocalDate DATE = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.TUESDAY)).plusWeeks(8);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Test
+    public void testStoreStatements() throws Exception {
+        // the pooled optimizer reads the reservations sequence on the first two inserts, then once per block of ids
+        for (int hour = 18; hour <= 19; hour++) {
+            mockMvc.perform(post("/api/v1/reservations").contentType(MediaType.APPLICATION_JSON)
+                    .content(reservationJson(hour, "RS"))).andExpect(status().isCreated());
+        }
+        // room check, reservation, listing row, slot claims and outbox event, the claims in a single batch
+        assertStatements(5, post("/api/v1/reservations").contentType(MediaType.APPLICATION_JSON)
+                .content(reservationJson(8, "RS")), 201);
+        assertStatements(5, post("/api/v1/reservations").contentType(MediaType.APPLICATION_JSON)
+                .content(reservationJson(10, "SPEC")), 201);
+    }
+
+    @Test
+    public void testIndexStatements() throws Exception {
+        for (int hour = 12; hour <= 18; hour += 2) {
+            mockMvc.perform(post("/api/v1/reservations").contentType(MediaType.APPLICATION_JSON)
+                    .content(reservationJson(hour, "RS"))).andExpect(status().isCreated());
+        }
+        // live and archived reservations are read from the listing table, without rooms nor equipments
+        assertStatements(1, get("/api/v1/reservations"), 200);
+        assertStatements(1, get("/api/v1/reservations").param("from", DATE.toString()), 200);
+    }
+
+    private void assertStatements(long budget, RequestBuilder request, int expectedStatus) throws Exception {
+        statementCounter.start();
+        try {
+            mockMvc.perform(request).andExpect(status().is(expectedStatus));
+        } finally {
+            List<String> statements = statementCounter.stop();
+            Assertions.assertTrue(statements.size() <= budget, "Expected at most " + budget + " SQL statements but "
+                    + statements.size() + " were executed: " + String.join("\n", statements));
+        }
+    }
+
+    private static String reservationJson(int hour, String type){
+        return String.format("{\"attendees\":2,\"type\":\"%s\",\"date\":\"%s\",\"startTime\":\"%02d:00\",\"reservedBy\":\"test\"}",
+                type, DATE, hour);
+    }
+}
@@ -0,0 +1,98 @@
+package com.zenika.meetingplanner.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Only E1001 can host 12 attendees, so booking it leaves no room for another meeting of that size
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReservationSuggestionTest {
+
+    private static final LocalDate DATE = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.THURSDAY)).plusWeeks(18);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testStoreSuggestsNearestSlots() throws Exception {
+        mockMvc.perform(post("/api/v1/reservations").contentType(MediaType.APPLICATION_JSON).content(reservationJson(DATE)))
+                .andExpect(status().isCreated());
+
+        String content = mockMvc.perform(post("/api/v1/reservations").param("suggestions", "3")
+                        .contentType(MediaType.APPLICATION_JSON).content(reservationJson(DATE)))
+                .andExpect(status().isNotFound()).andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        JsonNode body = objectMapper.readTree(content);
+        Assertions.assertEquals("Aucune salle disponible pour cette réservation", body.get("message").asText());
+        Assertions.assertEquals(List.of("12:00", "08:00", "13:00"), startTimes(body.get("suggestions")));
+        Assertions.assertEquals("E1001", body.get("suggestions").get(0).get("room").get("name").asText());
+        Assertions.assertEquals(DATE.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")),
+                body.get("suggestions").get(0).get("date").asText());
+    }
+
+    @Test
+    public void testSuggestionsMoveToNextBusinessDay() throws Exception {
+        LocalDate friday = DATE.plusDays(1);
+        for (int hour = 8; hour <= 20; hour += 2) {
+            String json = String.format("{\"attendees\":12,\"type\":\"RS\",\"date\":\"%s\",\"startTime\":\"%02d:00\",\"reservedBy\":\"suggestion\"}",
+                    friday, hour);
+            mockMvc.perform(post("/api/v1/reservations").contentType(MediaType.APPLICATION_JSON).content(json))
+                    .andExpect(status().isCreated());
+        }
+
+        String content = mockMvc.perform(get("/api/v1/reservations/suggestions").param("attendees", "12")
+                        .param("type", "RS").param("date", friday.toString()).param("startTime", "10:00")
+                        .param("endTime", "10:30").param("limit", "2"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+        JsonNode suggestions = objectMapper.readTree(content);
+        Assertions.assertEquals(2, suggestions.size());
+        Assertions.assertEquals(friday.plusDays(3).format(DateTimeFormatter.ofPattern("dd/MM/yyyy")),
+                suggestions.get(0).get("date").asText());
+        Assertions.assertEquals(List.of("10:00", "11:00"), startTimes(suggestions));
+        Assertions.assertEquals("10:30", suggestions.get(0).get("endTime").asText());
+    }
+
+    @Test
+    public void testSuggestionsRejectInvalidLimit() throws Exception {
+        mockMvc.perform(get("/api/v1/reservations/suggestions").param("attendees", "2").param("type", "RS")
+                        .param("date", DATE.toString()).param("startTime", "10:00").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static List<String> startTimes(JsonNode suggestions) {
+        List<String> startTimes = new ArrayList<>();
+        suggestions.forEach(suggestion -> startTimes.add(suggestion.get("startTime").asText()));
+        return startTimes;
+    }
+
+    private static String reservationJson(LocalDate date) {
+        return String.format("{\"attendees\":12,\"type\":\"RS\",\"date\":\"%s\",\"startTime\":\"10:00\",\"reservedBy\":\"suggestion\"}",
+                date);
+    }
+}
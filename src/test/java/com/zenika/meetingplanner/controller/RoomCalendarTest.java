@@ -0,0 +1,115 @@
+package com.zenika.meetingplanner.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RoomCalendarTest {
+
+    private static final LocalDate DATE = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY)).plusWeeks(20);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testCalendarIsConditional() throws Exception {
+        store(DATE, 10);
+
+        MockHttpServletResponse response = calendar(null).andExpect(status().isOk()).andReturn().getResponse();
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        Assertions.assertNotNull(etag);
+        Assertions.assertNotNull(response.getHeader(HttpHeaders.LAST_MODIFIED));
+        JsonNode calendar = objectMapper.readTree(response.getContentAsString());
+        Assertions.assertEquals("08:00", calendar.get("firstSlot").asText());
+        JsonNode room = findRoom(calendar, "E2001");
+        Assertions.assertEquals(2, room.get("days").size());
+        Assertions.assertEquals("0111000000000", room.get("days").get(0).asText());
+        Assertions.assertEquals("0000000000000", room.get("days").get(1).asText());
+
+        calendar(etag).andExpect(status().isNotModified());
+
+        store(DATE.plusDays(7), 10);
+        calendar(etag).andExpect(status().isNotModified());
+
+        store(DATE.plusDays(1), 14);
+        String changedEtag = calendar(etag).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Assertions.assertNotEquals(etag, changedEtag);
+    }
+
+    @Test
+    public void testCalendarSeesBookingsOfAnotherInstance() throws Exception {
+        LocalDate date = DATE.plusWeeks(2);
+        String etag = calendar(date, null).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // written to the shared database without going through this instance, as another instance would
+        jdbcTemplate.update("insert into reservations (id, reservation_number, date, start_time, end_time, type, attendees, "
+                + "reserved_by, room_name) values (?, 1, ?, '09:00:00', '10:00:00', 'RS', 2, 'calendar', 'E2001')",
+                8_000_000_000L + date.toEpochDay(), date);
+
+        MockHttpServletResponse response = calendar(date, etag).andExpect(status().isOk()).andReturn().getResponse();
+        Assertions.assertNotEquals(etag, response.getHeader(HttpHeaders.ETAG));
+        JsonNode room = findRoom(objectMapper.readTree(response.getContentAsString()), "E2001");
+        Assertions.assertEquals("1110000000000", room.get("days").get(0).asText());
+        calendar(date, response.getHeader(HttpHeaders.ETAG)).andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void testCalendarRejectsInvalidRange() throws Exception {
+        mockMvc.perform(get("/api/v1/rooms/calendar").param("from", DATE.toString())
+                        .param("to", DATE.minusDays(1).toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ResultActions calendar(String etag) throws Exception {
+        return calendar(DATE, etag);
+    }
+
+    private ResultActions calendar(LocalDate from, String etag) throws Exception {
+        var request = get("/api/v1/rooms/calendar").param("from", from.toString()).param("to", from.plusDays(1).toString());
+        if (etag != null)
+            request.header(HttpHeaders.IF_NONE_MATCH, etag);
+        return mockMvc.perform(request);
+    }
+
+    private void store(LocalDate date, int hour) throws Exception {
+        String json = String.format("{\"attendees\":2,\"type\":\"RS\",\"date\":\"%s\",\"startTime\":\"%02d:00\",\"reservedBy\":\"calendar\"}",
+                date, hour);
+        mockMvc.perform(post("/api/v1/reservations").contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isCreated());
+    }
+
+    private static JsonNode findRoom(JsonNode calendar, String name) {
+        for (JsonNode room : calendar.get("rooms")) {
+            if (room.get("name").asText().equals(name))
+                return room;
+        }
+        throw new AssertionError("No room " + name);
+    }
+}
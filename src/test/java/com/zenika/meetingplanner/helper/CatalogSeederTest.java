@@ -0,0 +1,67 @@
+package com.zenika.meetingplanner.helper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.zenika.meetingplanner.model.Equipment;
+import com.zenika.meetingplanner.model.Room;
+import com.zenika.meetingplanner.repository.RoomRepository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The catalog is seeded at startup by the command line runner, these tests check its content
+ */
+@DataJpaTest
+class CatalogSeederTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectProvider<CacheManager> cacheManager;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Test
+    public void testRoomsAreSeededWithTheirEquipments() throws Exception {
+        Map<String, Room> rooms = roomRepository.findAll().stream()
+                .collect(Collectors.toMap(Room::getName, Function.identity()));
+        JsonNode json = JsonReader.read("rooms");
+
+        Assertions.assertEquals(json.size(), rooms.size());
+        for (JsonNode node : json) {
+            Room room = rooms.get(node.get("name").asText());
+            Set<String> expected = new HashSet<>();
+            if (node.get("equipments") != null)
+                node.get("equipments").forEach(item -> expected.add(item.asText().toLowerCase()));
+            Assertions.assertEquals(node.get("capacity").asInt(), room.getMaxCapacity());
+            Assertions.assertEquals(expected, room.getEquipments().stream().map(Equipment::getName).collect(Collectors.toSet()));
+        }
+    }
+
+    @Test
+    public void testSeedIsSkippedWhenRoomsArePresent() {
+        Integer rooms = jdbcTemplate.queryForObject("select count(*) from rooms", Integer.class);
+
+        int seeded = new CatalogSeeder(jdbcTemplate, transactionTemplate, cacheManager).seed("rooms");
+
+        Assertions.assertEquals(0, seeded);
+        Assertions.assertEquals(rooms, jdbcTemplate.queryForObject("select count(*) from rooms", Integer.class));
+    }
+}
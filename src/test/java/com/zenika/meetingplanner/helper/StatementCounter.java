@@ -0,0 +1,81 @@
+package com.zenika.meetingplanner.helper;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Count the JDBC statements executed by the recording thread at the DataSource, whichever API sends them:
+ * Hibernate, JdbcTemplate batches or plain JDBC. A batch counts once per executeBatch.
+ * Statements of other threads, such as the scheduled event dispatch, are ignored.
+ * Import it in a Spring test to wrap the application DataSource.
+ */
+public class StatementCounter implements BeanPostProcessor {
+
+    private final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+    private volatile Thread recording;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource)
+            return proxy(DataSource.class, dataSource, null);
+        return bean;
+    }
+
+    /**
+     * Start counting the statements of the current thread
+     */
+    public void start() {
+        statements.clear();
+        recording = Thread.currentThread();
+    }
+
+    /**
+     * Stop counting
+     * @return The SQL of the statements executed since {@link #start()}, in execution order
+     */
+    public List<String> stop() {
+        recording = null;
+        synchronized (statements) {
+            return List.copyOf(statements);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(Class<T> type, T target, String sql) {
+        InvocationHandler handler = (proxy, method, args) -> invoke(target, sql, method, args);
+        return (T) Proxy.newProxyInstance(StatementCounter.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private Object invoke(Object target, String sql, Method method, Object[] args) throws Throwable {
+        Object result;
+        try {
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        String name = method.getName();
+        if (result instanceof Connection connection && name.equals("getConnection"))
+            return proxy(Connection.class, connection, null);
+        if (result instanceof CallableStatement statement)
+            return proxy(CallableStatement.class, statement, (String) args[0]);
+        if (result instanceof PreparedStatement statement)
+            return proxy(PreparedStatement.class, statement, (String) args[0]);
+        if (result instanceof Statement statement && name.equals("createStatement"))
+            return proxy(Statement.class, statement, null);
+        if (name.startsWith("execute") && Thread.currentThread() == recording)
+            statements.add(args != null && args.length > 0 && args[0] instanceof String executed ? executed : sql);
+        return result;
+    }
+}
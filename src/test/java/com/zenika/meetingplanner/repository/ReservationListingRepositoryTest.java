@@ -0,0 +1,80 @@
+package com.zenika.meetingplanner.repository;
+
+import com.zenika.meetingplanner.helper.StatementCounter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The listing queries only hold the predicates of the given filters, these tests check with EXPLAIN
+ * that each filter is served by a range scan of its index
+ */
+@DataJpaTest
+@Import(StatementCounter.class)
+class ReservationListingRepositoryTest {
+
+    private static final LocalDate DATE = LocalDate.of(2030, 1, 7);
+    private static final Limit LIMIT = Limit.of(101);
+
+    @Autowired
+    private ReservationListingRepository reservationListingRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testDateRangeScansTheDateIndex() {
+        statementCounter.start();
+        reservationListingRepository.findPage(DATE, DATE.plusDays(6), null, null, null, null, null, LIMIT);
+
+        String plan = explain(DATE, DATE.plusDays(6), LIMIT.max());
+        assertIndexRange(plan, "idx_reservation_listing_date_start");
+    }
+
+    @Test
+    public void testReservedByScansTheReservedByIndex() {
+        statementCounter.start();
+        reservationListingRepository.findPage(null, null, null, "bob", DATE, LocalTime.NOON, 5L, LIMIT);
+
+        String plan = explain("bob", DATE, DATE, DATE, LocalTime.NOON, LocalTime.NOON, 5L, LIMIT.max());
+        assertIndexRange(plan, "idx_reservation_listing_reserved_by");
+    }
+
+    @Test
+    public void testRoomScansTheRoomIndex() {
+        statementCounter.start();
+        reservationListingRepository.findPage(DATE, null, "E1001", null, null, null, null, LIMIT);
+
+        String plan = explain(DATE, "E1001", LIMIT.max());
+        assertIndexRange(plan, "idx_reservation_listing_room");
+    }
+
+    /**
+     * Explain the single statement recorded since the counter was started
+     * @param parameters The values of the parameters of the statement, in order
+     * @return The plan
+     */
+    private String explain(Object... parameters) {
+        List<String> statements = statementCounter.stop();
+        Assertions.assertEquals(1, statements.size(), String.join("\n", statements));
+        return jdbcTemplate.queryForObject("explain " + statements.get(0), String.class, parameters)
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static void assertIndexRange(String plan, String index) {
+        Assertions.assertTrue(plan.contains(index + ":"), plan);
+    }
+}
@@ -0,0 +1,145 @@
+package com.zenika.meetingplanner.service;
+
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.repository.ReservationRepository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+class BookingServiceTest {
+
+    private static final LocalDate DATE = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.THURSDAY)).plusWeeks(12);
+    private static final int REQUESTS = 2000;
+    private static final int THREADS = 64;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RoomOccupancyIndex occupancyIndex;
+
+    @Test
+    public void testConcurrentBookingsNeverOverlap() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Reservation>> results = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            LocalTime startTime = LocalTime.of(8 + i % 12, 0);
+            Reservation reservation = Reservation.builder().date(DATE).startTime(startTime)
+                    .endTime(startTime.plusHours(1)).type("RS").attendees(2).reservedBy("load-" + i).build();
+            results.add(executor.submit(() -> {
+                start.await();
+                return bookingService.book(reservation);
+            }));
+        }
+        start.countDown();
+
+        int booked = 0;
+        for (Future<Reservation> result : results) {
+            if (result.get() != null)
+                booked++;
+        }
+        executor.shutdown();
+
+        Assertions.assertTrue(booked > 0);
+        assertNoOverlap(DATE, booked);
+    }
+
+    @Test
+    public void testConcurrentBatchesAndBookingsNeverOverlap() throws Exception {
+        LocalDate date = DATE.plusWeeks(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS * 4; i++) {
+            int offset = i;
+            results.add(executor.submit(() -> {
+                start.await();
+                if (offset % 2 == 0)
+                    return bookingService.book(meeting(date, offset, offset)) != null ? 1 : 0;
+                List<Reservation> meetings = new ArrayList<>();
+                for (int j = 0; j < 6; j++) {
+                    meetings.add(meeting(date, offset + j, offset * 10 + j));
+                }
+                return bookingService.bookAll(meetings, MeetingPlanner.Mode.GREEDY).placed().size();
+            }));
+        }
+        start.countDown();
+
+        int booked = 0;
+        for (Future<Integer> result : results) {
+            booked += result.get();
+        }
+        executor.shutdown();
+
+        Assertions.assertTrue(booked > 0);
+        assertNoOverlap(date, booked);
+    }
+
+    @Test
+    public void testIndexIsUpdatedOnlyOnceCommitted() {
+        LocalDate date = DATE.plusWeeks(2);
+        List<Reservation> meetings = List.of(meeting(date, 2, 1));
+        AtomicReference<String> roomName = new AtomicReference<>();
+
+        Assertions.assertThrows(IllegalStateException.class, () -> bookingService.bookAll(meetings, MeetingPlanner.Mode.GREEDY,
+                plan -> {
+                    roomName.set(plan.placed().get(0).getRoom().getName());
+                    throw new IllegalStateException("rolled back");
+                }));
+        Assertions.assertTrue(occupancyIndex.isAvailable(roomName.get(), date, LocalTime.of(10, 0)));
+
+        AtomicBoolean indexedInTransaction = new AtomicBoolean(true);
+        MeetingPlanner.Plan plan = bookingService.bookAll(meetings, MeetingPlanner.Mode.GREEDY,
+                placed -> indexedInTransaction.set(!occupancyIndex.isAvailable(
+                        placed.placed().get(0).getRoom().getName(), date, LocalTime.of(10, 0))));
+        Assertions.assertFalse(indexedInTransaction.get());
+        Assertions.assertFalse(occupancyIndex.isAvailable(plan.placed().get(0).getRoom().getName(), date, LocalTime.of(10, 0)));
+    }
+
+    private static Reservation meeting(LocalDate date, int slot, int number) {
+        LocalTime startTime = LocalTime.of(8 + slot % 12, 0);
+        return Reservation.builder().date(date).startTime(startTime).endTime(startTime.plusHours(1)).type("RS")
+                .attendees(2).reservedBy("load-" + number).build();
+    }
+
+    /**
+     * Check that the one-hour meetings of a day are two hours apart in each room, cleanup buffer included
+     */
+    private void assertNoOverlap(LocalDate date, int booked) {
+        Map<String, List<Reservation>> reservationsByRoom = reservationRepository.findAll().stream()
+                .filter(reservation -> reservation.getDate().equals(date))
+                .collect(Collectors.groupingBy(reservation -> reservation.getRoom().getName()));
+
+        Assertions.assertEquals(booked, reservationsByRoom.values().stream().mapToInt(List::size).sum());
+        for (List<Reservation> reservations : reservationsByRoom.values()) {
+            for (int i = 0; i < reservations.size(); i++) {
+                for (int j = i + 1; j < reservations.size(); j++) {
+                    int gap = Math.abs(reservations.get(i).getStartTime().getHour() - reservations.get(j).getStartTime().getHour());
+                    Assertions.assertTrue(gap >= 2, "Double booking in room " + reservations.get(i).getRoom().getName());
+                }
+            }
+        }
+    }
+}
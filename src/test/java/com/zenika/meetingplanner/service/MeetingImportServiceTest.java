@@ -0,0 +1,67 @@
+package com.zenika.meetingplanner.service;
+
+import com.zenika.meetingplanner.model.Reservation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MeetingImportServiceTest {
+
+    private static final LocalDate DATE = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    @Test
+    public void testFailedChunkIsReportedAndImportGoesOn() throws Exception {
+        BookingService bookingService = mock(BookingService.class);
+        when(bookingService.bookAll(anyList(), any(MeetingPlanner.Mode.class)))
+                .thenThrow(new DataIntegrityViolationException("slot claim conflict"))
+                .thenAnswer(invocation -> {
+                    List<Reservation> meetings = new ArrayList<>(invocation.getArgument(0));
+                    return new MeetingPlanner.Plan(meetings, List.of());
+                });
+        MeetingImportService meetingImportService = new MeetingImportService(bookingService,
+                mock(ReservationValidator.class), mock(BookingMetrics.class));
+        String plan = String.join("\n", meetingJson(1, 8), meetingJson(2, 10), meetingJson(3, 12));
+
+        List<MeetingImportService.Entry> entries = new ArrayList<>();
+        List<MeetingImportService.Progress> progress = new ArrayList<>();
+        MeetingImportService.Progress result = meetingImportService.importMeetings(
+                new ByteArrayInputStream(plan.getBytes(StandardCharsets.UTF_8)), MeetingPlanner.Mode.GREEDY, 2, DATE,
+                new MeetingImportService.Listener() {
+                    @Override
+                    public void onEntry(MeetingImportService.Entry entry) {
+                        entries.add(entry);
+                    }
+
+                    @Override
+                    public void onProgress(MeetingImportService.Progress chunkProgress) {
+                        progress.add(chunkProgress);
+                    }
+                });
+
+        Assertions.assertEquals(List.of(MeetingImportService.Status.FAILED, MeetingImportService.Status.FAILED,
+                MeetingImportService.Status.BOOKED), entries.stream().map(MeetingImportService.Entry::status).toList());
+        Assertions.assertEquals(List.of(1, 2, 3), entries.stream().map(MeetingImportService.Entry::line).toList());
+        Assertions.assertEquals(2, progress.size());
+        Assertions.assertEquals(new MeetingImportService.Progress(2, 0, 0, 0, 2), progress.get(0));
+        Assertions.assertEquals(new MeetingImportService.Progress(3, 1, 0, 0, 2), result);
+    }
+
+    private static String meetingJson(int meeting, int hour) {
+        return String.format("{\"meeting\":%d,\"time\":\"%02d:00\",\"type\":\"RS\",\"attendees\":2,\"reservedBy\":\"import\"}",
+                meeting, hour);
+    }
+}
@@ -0,0 +1,93 @@
+package com.zenika.meetingplanner.service;
+
+import com.zenika.meetingplanner.model.Equipment;
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.model.Room;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+class MeetingPlannerTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 5, 27);
+
+    private RoomOccupancyIndex occupancyIndex;
+    private MeetingPlanner meetingPlanner;
+    private List<Room> rooms;
+
+    @BeforeEach
+    public void setUp(){
+        occupancyIndex = new RoomOccupancyIndex();
+        meetingPlanner = new MeetingPlanner(new RoomService(null, occupancyIndex), occupancyIndex);
+        Equipment tableau = Equipment.builder().id(3L).name("tableau").build();
+        Equipment ecran = Equipment.builder().id(1L).name("ecran").build();
+        rooms = List.of(
+                Room.builder().name("X").maxCapacity(4).equipments(Set.of(tableau)).build(),
+                Room.builder().name("Y").maxCapacity(20).equipments(Set.of(ecran)).build());
+    }
+
+    @Test
+    public void testGreedyFollowsInputOrder(){
+        MeetingPlanner.Plan plan = meetingPlanner.plan(List.of(meeting(1, "RS", 2), meeting(2, "SPEC", 2)), rooms,
+                MeetingPlanner.Mode.GREEDY);
+        Assertions.assertEquals(1, plan.placed().size());
+        Assertions.assertEquals("X", plan.placed().get(0).getRoom().getName());
+        Assertions.assertEquals(2, plan.unplaced().get(0).meeting().getReservationNumber());
+        Assertions.assertEquals(MeetingPlanner.Reason.ALL_ROOMS_BUSY, plan.unplaced().get(0).reason());
+    }
+
+    @Test
+    public void testMaximizePlacesMoreMeetings(){
+        MeetingPlanner.Plan plan = meetingPlanner.plan(List.of(meeting(1, "RS", 2), meeting(2, "SPEC", 2)), rooms,
+                MeetingPlanner.Mode.MAXIMIZE);
+        Assertions.assertEquals(2, plan.placed().size());
+        Assertions.assertEquals("Y", plan.placed().get(0).getRoom().getName());
+        Assertions.assertEquals("X", plan.placed().get(1).getRoom().getName());
+    }
+
+    @Test
+    public void testExistingReservationsAreRespected(){
+        occupancyIndex.add("Y", DATE, LocalTime.of(10, 0), LocalTime.of(11, 0));
+        MeetingPlanner.Plan plan = meetingPlanner.plan(List.of(meeting(1, "RS", 2), meeting(2, "SPEC", 2)), rooms,
+                MeetingPlanner.Mode.MAXIMIZE);
+        Assertions.assertEquals(1, plan.placed().size());
+        Assertions.assertEquals(2, plan.placed().get(0).getReservationNumber());
+        Assertions.assertEquals(MeetingPlanner.Reason.ALL_ROOMS_BUSY, plan.unplaced().get(0).reason());
+    }
+
+    @Test
+    public void testUnplacedReasons(){
+        MeetingPlanner.Plan plan = meetingPlanner.plan(List.of(meeting(1, "RS", 50), meeting(2, "VC", 2)), rooms,
+                MeetingPlanner.Mode.GREEDY);
+        Assertions.assertTrue(plan.placed().isEmpty());
+        Assertions.assertEquals(MeetingPlanner.Reason.NO_ROOM_LARGE_ENOUGH, plan.unplaced().get(0).reason());
+        Assertions.assertEquals(MeetingPlanner.Reason.NO_ROOM_WITH_EQUIPMENT, plan.unplaced().get(1).reason());
+    }
+
+    @Test
+    public void testVariableDurationsKeepTheCleanupBuffer(){
+        List<Reservation> meetings = List.of(
+                meeting(1, "SPEC", 2, LocalTime.of(9, 0), LocalTime.of(12, 0)),
+                meeting(2, "SPEC", 2, LocalTime.of(12, 30), LocalTime.of(13, 0)),
+                meeting(3, "SPEC", 2, LocalTime.of(13, 0), LocalTime.of(13, 30)));
+        MeetingPlanner.Plan plan = meetingPlanner.plan(meetings, rooms, MeetingPlanner.Mode.GREEDY);
+        Assertions.assertEquals(List.of(1, 3), plan.placed().stream().map(Reservation::getReservationNumber).toList());
+        Assertions.assertEquals(2, plan.unplaced().get(0).meeting().getReservationNumber());
+        Assertions.assertEquals(MeetingPlanner.Reason.ALL_ROOMS_BUSY, plan.unplaced().get(0).reason());
+    }
+
+    private static Reservation meeting(int number, String type, int attendees){
+        return meeting(number, type, attendees, LocalTime.of(9, 0), LocalTime.of(10, 0));
+    }
+
+    private static Reservation meeting(int number, String type, int attendees, LocalTime startTime, LocalTime endTime){
+        return Reservation.builder().reservationNumber(number).date(DATE).startTime(startTime)
+                .endTime(endTime).type(type).attendees(attendees).build();
+    }
+}
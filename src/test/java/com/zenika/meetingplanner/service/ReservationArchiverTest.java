@@ -0,0 +1,82 @@
+package com.zenika.meetingplanner.service;
+
+import com.zenika.meetingplanner.helper.ReservationCursor;
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.model.ReservationListing;
+import com.zenika.meetingplanner.model.Room;
+import com.zenika.meetingplanner.repository.RoomRepository;
+import com.zenika.meetingplanner.request.ListReservationsRequest;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reservations are saved directly on sundays, which the API never books, so they cannot clash with other tests
+ */
+@SpringBootTest
+class ReservationArchiverTest {
+
+    private static final LocalDate PAST = LocalDate.now().minusWeeks(10).with(TemporalAdjusters.previous(DayOfWeek.SUNDAY));
+    private static final LocalDate FUTURE = LocalDate.now().plusWeeks(30).with(TemporalAdjusters.next(DayOfWeek.SUNDAY));
+
+    @Autowired
+    private ReservationArchiver reservationArchiver;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private RoomOccupancyIndex occupancyIndex;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Test
+    public void testOldReservationsAreArchivedAndStillListed() {
+        String reservedBy = UUID.randomUUID().toString();
+        Room room = roomRepository.findAll().stream().filter(r -> r.getName().equals("E1001")).findFirst().orElseThrow();
+        reservationService.save(reservation(room, PAST, 9, reservedBy));
+        reservationService.save(reservation(room, PAST, 14, reservedBy));
+        reservationService.save(reservation(room, FUTURE, 9, reservedBy));
+
+        Assertions.assertTrue(reservationArchiver.archive() >= 2);
+
+        Assertions.assertTrue(occupancyIndex.isAvailable("E1001", PAST, LocalTime.of(9, 0)));
+        Assertions.assertFalse(occupancyIndex.isAvailable("E1001", FUTURE, LocalTime.of(9, 0)));
+        Assertions.assertTrue(reservationService.findFirstDate().isAfter(PAST));
+
+        ListReservationsRequest request = new ListReservationsRequest();
+        request.setReservedBy(reservedBy);
+        Slice<ReservationListing> first = reservationService.findPage(request, 2);
+        Assertions.assertTrue(first.hasNext());
+        Assertions.assertEquals(List.of(PAST, PAST), first.stream().map(ReservationListing::getDate).toList());
+        Assertions.assertEquals("E1001", first.getContent().get(0).getRoomName());
+
+        request.setCursor(ReservationCursor.of(first.getContent().get(1)).encode());
+        Slice<ReservationListing> second = reservationService.findPage(request, 2);
+        Assertions.assertFalse(second.hasNext());
+        Assertions.assertEquals(List.of(FUTURE), second.stream().map(ReservationListing::getDate).toList());
+
+        request.setCursor(null);
+        List<LocalTime> streamed = new ArrayList<>();
+        reservationService.streamAll(request, reservation -> streamed.add(reservation.getStartTime()));
+        Assertions.assertEquals(List.of(LocalTime.of(9, 0), LocalTime.of(14, 0), LocalTime.of(9, 0)), streamed);
+    }
+
+    private static Reservation reservation(Room room, LocalDate date, int hour, String reservedBy) {
+        LocalTime startTime = LocalTime.of(hour, 0);
+        return Reservation.builder().room(room).date(date).startTime(startTime).endTime(startTime.plusHours(1))
+                .type("RS").attendees(2).reservedBy(reservedBy).build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.zenika.meetingplanner.service;
+
+import com.zenika.meetingplanner.model.ReservationEvent;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReservationEventDispatcherTest {
+
+    @Test
+    public void testDispatchWaitsForMissingOffset() {
+        ReservationEventService reservationEventService = mock(ReservationEventService.class);
+        when(reservationEventService.findLastId()).thenReturn(0L);
+        when(reservationEventService.findAfter(eq(0L), anyInt())).thenReturn(List.of(event(1), event(3)));
+        when(reservationEventService.findAfter(eq(1L), anyInt())).thenReturn(List.of(event(3)));
+        ReservationEventDispatcher dispatcher = dispatcher(reservationEventService, Runnable::run, Duration.ofHours(1), 100);
+
+        // offset 2 may belong to a transaction not committed yet
+        Assertions.assertEquals(1, dispatcher.dispatch());
+        Assertions.assertEquals(0, dispatcher.dispatch());
+    }
+
+    @Test
+    public void testDispatchSkipsMissingOffsetAfterGapTimeout() {
+        ReservationEventService reservationEventService = mock(ReservationEventService.class);
+        when(reservationEventService.findLastId()).thenReturn(0L);
+        when(reservationEventService.findAfter(eq(0L), anyInt())).thenReturn(List.of(event(1), event(3)));
+        ReservationEventDispatcher dispatcher = dispatcher(reservationEventService, Runnable::run, Duration.ZERO, 100);
+
+        Assertions.assertEquals(2, dispatcher.dispatch());
+    }
+
+    @Test
+    public void testOffsetCommittedAfterGapTimeoutIsDispatched() {
+        ReservationEventService reservationEventService = mock(ReservationEventService.class);
+        when(reservationEventService.findLastId()).thenReturn(0L);
+        when(reservationEventService.findAfter(eq(0L), anyInt())).thenReturn(List.of(event(1), event(3)));
+        when(reservationEventService.findAfter(eq(3L), anyInt())).thenReturn(List.of());
+        when(reservationEventService.findByIds(List.of(2L))).thenReturn(List.of()).thenReturn(List.of(event(2)));
+        ReservationEventDispatcher dispatcher = dispatcher(reservationEventService, Runnable::run, Duration.ZERO, 100);
+
+        Assertions.assertEquals(2, dispatcher.dispatch());
+        // offset 2 is still watched while its transaction has not committed
+        Assertions.assertEquals(0, dispatcher.dispatch());
+        Assertions.assertEquals(1, dispatcher.dispatch());
+        Assertions.assertEquals(0, dispatcher.dispatch());
+        verify(reservationEventService, times(2)).findByIds(anyCollection());
+        Assertions.assertEquals(3, dispatcher.getLastDispatchedId());
+    }
+
+    @Test
+    public void testSlowSubscriberIsClosedWithoutHoldingDispatch() throws Exception {
+        ReservationEventService reservationEventService = mock(ReservationEventService.class);
+        when(reservationEventService.findLastId()).thenReturn(0L);
+        when(reservationEventService.findAfter(eq(0L), anyInt())).thenReturn(List.of(event(1), event(2)));
+        when(reservationEventService.findAfter(eq(2L), anyInt())).thenReturn(List.of(event(3)));
+        // a sender that never gets to send, as for a client that stopped reading
+        List<Runnable> senders = new ArrayList<>();
+        ReservationEventDispatcher dispatcher = dispatcher(reservationEventService, senders::add, Duration.ofHours(1), 2);
+        dispatcher.subscribe(null);
+
+        Assertions.assertEquals(2, dispatcher.dispatch());
+        Assertions.assertEquals(1, dispatcher.getSubscriberCount());
+        Assertions.assertEquals(1, senders.size());
+
+        Assertions.assertEquals(1, dispatcher.dispatch());
+        Assertions.assertEquals(0, dispatcher.getSubscriberCount());
+    }
+
+    private static ReservationEventDispatcher dispatcher(ReservationEventService reservationEventService, Executor senders,
+            Duration gapTimeout, int queueCapacity) {
+        return new ReservationEventDispatcher(reservationEventService, senders, Duration.ofMinutes(30), gapTimeout,
+                Duration.ofHours(1), Duration.ofDays(7), queueCapacity);
+    }
+
+    private static ReservationEvent event(long id) {
+        return ReservationEvent.builder().id(id).type(ReservationEvent.Type.CREATED.name()).reservationId(id)
+                .payload("{}").build();
+    }
+}
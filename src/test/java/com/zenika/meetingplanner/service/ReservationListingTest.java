@@ -0,0 +1,98 @@
+package com.zenika.meetingplanner.service;
+
+import com.zenika.meetingplanner.dto.RoomDto;
+import com.zenika.meetingplanner.helper.Mapper;
+import com.zenika.meetingplanner.model.Equipment;
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.model.Room;
+import com.zenika.meetingplanner.repository.EquipmentRepository;
+import com.zenika.meetingplanner.repository.RoomRepository;
+import com.zenika.meetingplanner.request.ListReservationsRequest;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reservations are saved directly on saturdays, which the API never books, so they cannot clash with other tests
+ */
+@SpringBootTest
+class ReservationListingTest {
+
+    private static final LocalDate DATE = LocalDate.now().plusWeeks(26).with(TemporalAdjusters.next(DayOfWeek.SATURDAY));
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private EquipmentRepository equipmentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testListingMatchesNormalizedReservations() {
+        String reservedBy = UUID.randomUUID().toString();
+        List<Reservation> saved = new ArrayList<>();
+        for (Room room : roomRepository.findAll().subList(0, 3)) {
+            LocalTime startTime = LocalTime.of(9 + saved.size(), 0);
+            saved.add(reservationService.save(Reservation.builder().room(room).date(DATE).startTime(startTime)
+                    .endTime(startTime.plusHours(1)).type("RS").attendees(2).reservedBy(reservedBy).build()));
+        }
+
+        ListReservationsRequest request = new ListReservationsRequest();
+        request.setReservedBy(reservedBy);
+        Assertions.assertEquals(saved.stream().map(Mapper::ReservationToReservationDto).toList(),
+                reservationService.findPage(request, 10).stream().map(Mapper::ReservationListingToReservationDto).toList());
+    }
+
+    @Test
+    public void testListingFollowsRoomChanges() {
+        String reservedBy = UUID.randomUUID().toString();
+        Room room = roomRepository.findAll().get(3);
+        Equipment added = equipmentRepository.findAll().stream()
+                .filter(equipment -> !room.getEquipments().contains(equipment)).findFirst().orElseThrow();
+        reservationService.save(Reservation.builder().room(room).date(DATE).startTime(LocalTime.of(15, 0))
+                .endTime(LocalTime.of(16, 0)).type("RS").attendees(2).reservedBy(reservedBy).build());
+        try {
+            transactionTemplate.executeWithoutResult(status -> roomRepository.findById(room.getName()).orElseThrow()
+                    .setMaxCapacity(room.getMaxCapacity() + 10));
+            RoomDto listed = listedRoom(reservedBy);
+            Assertions.assertEquals(room.getMaxCapacity() + 10, listed.getMaxCapacity());
+            Assertions.assertFalse(listed.getEquipments().contains(Mapper.EquipmentToEquipmentDto(added)));
+
+            // only the join table changes, the rooms row is left as is
+            transactionTemplate.executeWithoutResult(status -> roomRepository.findById(room.getName()).orElseThrow()
+                    .getEquipments().add(equipmentRepository.findById(added.getId()).orElseThrow()));
+            listed = listedRoom(reservedBy);
+            Assertions.assertEquals(room.getMaxCapacity() + 10, listed.getMaxCapacity());
+            Assertions.assertTrue(listed.getEquipments().contains(Mapper.EquipmentToEquipmentDto(added)));
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> {
+                Room changed = roomRepository.findById(room.getName()).orElseThrow();
+                changed.setMaxCapacity(room.getMaxCapacity());
+                changed.getEquipments().removeIf(equipment -> equipment.getId().equals(added.getId()));
+            });
+        }
+        Assertions.assertEquals(Mapper.RoomToRoomDto(room), listedRoom(reservedBy));
+    }
+
+    private RoomDto listedRoom(String reservedBy) {
+        ListReservationsRequest request = new ListReservationsRequest();
+        request.setReservedBy(reservedBy);
+        return Mapper.ReservationListingToReservationDto(reservationService.findPage(request, 10).getContent().get(0)).getRoom();
+    }
+}
@@ -0,0 +1,73 @@
+package com.zenika.meetingplanner.service;
+
+import com.zenika.meetingplanner.request.StoreReservationRequest;
+import com.zenika.meetingplanner.service.ReservationValidator.Rejection;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.stream.Stream;
+
+class ReservationValidatorTest {
+
+    private static final LocalDate MONDAY = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    private final ReservationValidator reservationValidator = new ReservationValidator();
+
+    @ParameterizedTest
+    @MethodSource("provideArgumentsForValidate")
+    public void testValidate(String type, LocalDate date, LocalTime startTime, Rejection expected){
+        StoreReservationRequest request = new StoreReservationRequest();
+        request.setAttendees(4);
+        request.setType(type);
+        request.setDate(date);
+        request.setStartTime(startTime);
+        Assertions.assertEquals(expected, reservationValidator.validate(request));
+    }
+
+    private static Stream<Arguments> provideArgumentsForValidate(){
+        return Stream.of(
+                Arguments.of("vc", MONDAY, LocalTime.of(9,0), null),
+                Arguments.of("RS", MONDAY, LocalTime.of(20,0), null),
+                Arguments.of("RS", null, LocalTime.of(9,0), Rejection.INVALID_REQUEST),
+                Arguments.of("XX", MONDAY, LocalTime.of(9,0), Rejection.INVALID_TYPE),
+                Arguments.of(null, MONDAY, LocalTime.of(9,0), Rejection.INVALID_TYPE),
+                Arguments.of("RS", MONDAY.minusWeeks(1), LocalTime.of(9,0), Rejection.PAST_DATE),
+                Arguments.of("RS", MONDAY.plusDays(5), LocalTime.of(9,0), Rejection.WEEKEND),
+                Arguments.of("RS", MONDAY, LocalTime.of(9,30), Rejection.NOT_FULL_HOUR),
+                Arguments.of("RS", MONDAY, LocalTime.of(7,0), Rejection.OUT_OF_HOURS)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideArgumentsForValidateDuration")
+    public void testValidateDuration(LocalTime startTime, LocalTime endTime, Rejection expected){
+        StoreReservationRequest request = new StoreReservationRequest();
+        request.setAttendees(4);
+        request.setType("RS");
+        request.setDate(MONDAY);
+        request.setStartTime(startTime);
+        request.setEndTime(endTime);
+        Assertions.assertEquals(expected, reservationValidator.validate(request));
+    }
+
+    private static Stream<Arguments> provideArgumentsForValidateDuration(){
+        return Stream.of(
+                Arguments.of(LocalTime.of(9,0), null, null),
+                Arguments.of(LocalTime.of(9,0), LocalTime.of(9,30), null),
+                Arguments.of(LocalTime.of(8,0), LocalTime.of(20,0), null),
+                Arguments.of(LocalTime.of(9,0), LocalTime.of(9,0), Rejection.INVALID_DURATION),
+                Arguments.of(LocalTime.of(9,0), LocalTime.of(8,0), Rejection.INVALID_DURATION),
+                Arguments.of(LocalTime.of(9,0), LocalTime.of(9,15), Rejection.INVALID_DURATION),
+                Arguments.of(LocalTime.of(9,0), LocalTime.of(10,45), Rejection.INVALID_DURATION),
+                Arguments.of(LocalTime.of(8,0), LocalTime.of(20,30), Rejection.INVALID_DURATION),
+                Arguments.of(LocalTime.of(20,0), LocalTime.of(0,0), Rejection.INVALID_DURATION)
+        );
+    }
+}
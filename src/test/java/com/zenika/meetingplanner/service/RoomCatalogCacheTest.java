@@ -0,0 +1,98 @@
+package com.zenika.meetingplanner.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zenika.meetingplanner.model.Room;
+import com.zenika.meetingplanner.repository.RoomRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class RoomCatalogCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void testCatalogIsServedFromCache() {
+        roomService.findAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Room> rooms = roomService.findAll();
+
+        Assertions.assertFalse(rooms.isEmpty());
+        Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testCacheGetsAreReportedByTheActuator() throws Exception {
+        roomService.findAll();
+        double hits = cacheGets("hit");
+        double misses = cacheGets("miss");
+
+        roomService.findAll();
+        Assertions.assertEquals(hits + 1, cacheGets("hit"));
+        Assertions.assertEquals(misses, cacheGets("miss"));
+
+        cacheManager.getCache(RoomRepository.CACHE).clear();
+        roomService.findAll();
+        Assertions.assertEquals(misses + 1, cacheGets("miss"));
+    }
+
+    @Test
+    public void testCatalogIsReloadedWhenARoomChanges() {
+        int size = roomService.findAll().size();
+        Room room = roomRepository.save(Room.builder().name("cache-test").maxCapacity(4).equipments(new HashSet<>()).build());
+        try {
+            Assertions.assertTrue(roomService.findAll().stream().anyMatch(item -> item.getName().equals("cache-test")));
+        } finally {
+            roomRepository.delete(room);
+        }
+        Assertions.assertEquals(size, roomService.findAll().size());
+    }
+
+    /**
+     * Read the number of gets of the room cache from the actuator
+     * @param result hit or miss
+     * @return The number of gets
+     */
+    private double cacheGets(String result) throws Exception {
+        String json = mockMvc.perform(get("/actuator/metrics/cache.gets")
+                        .param("tag", "cache:" + RoomRepository.CACHE, "result:" + result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(json).get("measurements").get(0).get("value").asDouble();
+    }
+}
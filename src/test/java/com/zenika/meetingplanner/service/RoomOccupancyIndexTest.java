@@ -0,0 +1,146 @@
+package com.zenika.meetingplanner.service;
+
+import com.zenika.meetingplanner.model.Reservation;
+import com.zenika.meetingplanner.model.Room;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+class RoomOccupancyIndexTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 5, 27);
+
+    @ParameterizedTest
+    @MethodSource("provideArgumentsForIsAvailable")
+    public void testIsAvailable(LocalTime startTime, boolean expected){
+        RoomOccupancyIndex index = new RoomOccupancyIndex();
+        index.add("E1001", DATE, LocalTime.of(10, 0), LocalTime.of(11, 0));
+        Assertions.assertEquals(expected, index.isAvailable("E1001", DATE, startTime));
+    }
+
+    private static Stream<Arguments> provideArgumentsForIsAvailable(){
+        return Stream.of(
+                Arguments.of(LocalTime.of(8, 0), true),
+                Arguments.of(LocalTime.of(9, 0), false),
+                Arguments.of(LocalTime.of(10, 0), false),
+                Arguments.of(LocalTime.of(11, 0), false),
+                Arguments.of(LocalTime.of(12, 0), true)
+        );
+    }
+
+    @Test
+    public void testOtherRoomsAndDaysAreNotAffected(){
+        RoomOccupancyIndex index = new RoomOccupancyIndex();
+        index.add("E1001", DATE, LocalTime.of(10, 0), LocalTime.of(11, 0));
+        Assertions.assertTrue(index.isAvailable("E1002", DATE, LocalTime.of(10, 0)));
+        Assertions.assertTrue(index.isAvailable("E1001", DATE.plusDays(1), LocalTime.of(10, 0)));
+    }
+
+    @Test
+    public void testRebuild(){
+        RoomOccupancyIndex index = new RoomOccupancyIndex();
+        index.add("E1001", DATE, LocalTime.of(10, 0), LocalTime.of(11, 0));
+        Room room = Room.builder().name("E1002").build();
+        index.rebuild(List.of(Reservation.builder().room(room).date(DATE).startTime(LocalTime.of(14, 0)).build()));
+        Assertions.assertTrue(index.isAvailable("E1001", DATE, LocalTime.of(10, 0)));
+        Assertions.assertFalse(index.isAvailable("E1002", DATE, LocalTime.of(15, 0)));
+        Assertions.assertTrue(index.isAvailable("E1002", DATE, LocalTime.of(16, 0)));
+        Assertions.assertEquals(1, index.roomDayCount());
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideArgumentsForIsAvailableWithDuration")
+    public void testIsAvailableWithDuration(LocalTime startTime, LocalTime endTime, boolean expected){
+        RoomOccupancyIndex index = new RoomOccupancyIndex(Duration.ofMinutes(15), Duration.ofMinutes(30));
+        index.add("E1001", DATE, LocalTime.of(10, 0), LocalTime.of(10, 30));
+        index.add("E1001", DATE, LocalTime.of(14, 0), LocalTime.of(17, 0));
+        Assertions.assertEquals(expected, index.isAvailable("E1001", DATE, startTime, endTime));
+    }
+
+    private static Stream<Arguments> provideArgumentsForIsAvailableWithDuration(){
+        return Stream.of(
+                Arguments.of(LocalTime.of(8, 0), LocalTime.of(9, 15), true),
+                Arguments.of(LocalTime.of(8, 0), LocalTime.of(9, 30), false),
+                Arguments.of(LocalTime.of(11, 15), LocalTime.of(12, 0), true),
+                Arguments.of(LocalTime.of(11, 0), LocalTime.of(12, 0), false),
+                Arguments.of(LocalTime.of(11, 30), LocalTime.of(13, 15), true),
+                Arguments.of(LocalTime.of(11, 30), LocalTime.of(13, 30), false),
+                Arguments.of(LocalTime.of(15, 0), LocalTime.of(15, 30), false),
+                Arguments.of(LocalTime.of(17, 45), LocalTime.of(20, 0), true),
+                Arguments.of(LocalTime.of(8, 0), LocalTime.of(20, 0), false)
+        );
+    }
+
+    @Test
+    public void testAddMergesOverlappingIntervals(){
+        RoomOccupancyIndex index = new RoomOccupancyIndex(Duration.ZERO, Duration.ZERO);
+        index.add("E1001", DATE, LocalTime.of(9, 0), LocalTime.of(10, 0));
+        index.add("E1001", DATE, LocalTime.of(12, 0), LocalTime.of(13, 0));
+        index.add("E1001", DATE, LocalTime.of(14, 0), LocalTime.of(15, 0));
+        index.add("E1001", DATE, LocalTime.of(9, 30), LocalTime.of(12, 0));
+        Assertions.assertFalse(index.isAvailable("E1001", DATE, LocalTime.of(10, 0), LocalTime.of(11, 0)));
+        Assertions.assertFalse(index.isAvailable("E1001", DATE, LocalTime.of(12, 30), LocalTime.of(13, 0)));
+        Assertions.assertTrue(index.isAvailable("E1001", DATE, LocalTime.of(13, 0), LocalTime.of(14, 0)));
+        Assertions.assertFalse(index.isAvailable("E1001", DATE, LocalTime.of(14, 30), LocalTime.of(16, 0)));
+        Assertions.assertEquals(4, index.reservationCount("E1001"));
+    }
+
+    @Test
+    public void testConflicts(){
+        RoomOccupancyIndex index = new RoomOccupancyIndex();
+        Assertions.assertTrue(index.conflicts(LocalTime.of(9, 0), LocalTime.of(9, 30), LocalTime.of(10, 0), LocalTime.of(11, 0)));
+        Assertions.assertFalse(index.conflicts(LocalTime.of(9, 0), LocalTime.of(9, 30), LocalTime.of(10, 30), LocalTime.of(11, 0)));
+        Assertions.assertFalse(index.conflicts(LocalTime.of(13, 0), null, LocalTime.of(10, 0), LocalTime.of(12, 0)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideArgumentsForFreeHours")
+    public void testFreeHoursMatchesIsAvailable(Duration bufferBefore, Duration bufferAfter, int duration){
+        RoomOccupancyIndex index = new RoomOccupancyIndex(bufferBefore, bufferAfter);
+        index.add("E1001", DATE, LocalTime.of(9, 15), LocalTime.of(10, 0));
+        index.add("E1001", DATE, LocalTime.of(13, 0), LocalTime.of(14, 30));
+        index.add("E1001", DATE, LocalTime.of(18, 0), null);
+
+        int free = index.freeHours("E1001", DATE, 8, 13, duration);
+        for (int hour = 0; hour < 13; hour++) {
+            LocalTime startTime = LocalTime.of(8 + hour, 0);
+            boolean expected = index.isAvailable("E1001", DATE, startTime, startTime.plusMinutes(duration));
+            Assertions.assertEquals(expected, (free & (1 << hour)) != 0, startTime + " for " + duration + " minutes");
+        }
+        Assertions.assertEquals((1 << 13) - 1, index.freeHours("E1002", DATE, 8, 13, duration));
+    }
+
+    private static Stream<Arguments> provideArgumentsForFreeHours(){
+        return Stream.of(
+                Arguments.of(Duration.ZERO, Duration.ofHours(1), 60),
+                Arguments.of(Duration.ZERO, Duration.ZERO, 30),
+                Arguments.of(Duration.ofMinutes(15), Duration.ofMinutes(30), 90),
+                Arguments.of(Duration.ofMinutes(30), Duration.ofHours(1), 120)
+        );
+    }
+
+    @Test
+    public void testEvict(){
+        RoomOccupancyIndex index = new RoomOccupancyIndex();
+        index.add("E1001", DATE, LocalTime.of(10, 0), LocalTime.of(11, 0));
+        index.add("E1002", DATE, LocalTime.of(10, 0), LocalTime.of(11, 0));
+        index.add("E1001", DATE.plusDays(1), LocalTime.of(10, 0), LocalTime.of(11, 0));
+        index.evict(DATE);
+        Assertions.assertTrue(index.isAvailable("E1001", DATE, LocalTime.of(10, 0)));
+        Assertions.assertFalse(index.isAvailable("E1001", DATE.plusDays(1), LocalTime.of(10, 0)));
+        Assertions.assertEquals(1, index.reservationCount("E1001"));
+        Assertions.assertEquals(0, index.reservationCount("E1002"));
+        Assertions.assertEquals(1, index.reservationCount());
+        Assertions.assertEquals(1, index.maxRoomReservationCount());
+        Assertions.assertEquals(1, index.roomCount());
+    }
+}
@@ -11,6 +11,7 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import java.time.LocalDate;
@@ -28,6 +29,9 @@ class RoomServiceTest {
     @Mock
     private RoomRepository roomRepository;
 
+    @Spy
+    private RoomOccupancyIndex occupancyIndex = new RoomOccupancyIndex();
+
     @InjectMocks
     private RoomService roomService;
 
@@ -88,6 +92,7 @@ class RoomServiceTest {
     @ParameterizedTest
     @MethodSource("provideArgumentsForIsRoomAvailable")
     public void testIsRoomAvailable(Room room, LocalDate date, LocalTime startTime, boolean expected){
+        indexReservations(List.of(room));
         boolean result = roomService.isRoomAvailable(room, date, startTime);
         Assertions.assertEquals(expected, result);
     }
@@ -106,7 +111,7 @@ class RoomServiceTest {
                 .startTime(LocalTime.of(11,0))
                 .build();
         reservations.add(reservation2);
-        Room room = Room.builder().reservations(reservations).build();
+        Room room = Room.builder().name("room").reservations(reservations).build();
         return Stream.of(
                 Arguments.of(room,
                              LocalDate.of(2024, 5, 27),
@@ -143,47 +148,96 @@ class RoomServiceTest {
 
     @ParameterizedTest
     @MethodSource("provideArgumentsForGetAvailableRooms")
-    public void testGetAvailableRooms(List<Room> rooms, int attendees, String type, LocalDate date, LocalTime startTime, int expected){
+    public void testGetAvailableRooms(int attendees, String type, LocalTime startTime, List<String> expected){
+        LocalDate date = LocalDate.of(2024, 5, 27);
+        List<Room> rooms = catalog();
         when(roomRepository.findAll()).thenReturn(rooms);
-        List<Room> result = roomService.getAvailableRooms(attendees, type, date, startTime);
-        Assertions.assertEquals(expected, result.size());
-
+        indexReservations(rooms);
+
+        List<String> names = roomService.getAvailableRooms(attendees, type, date, startTime).stream()
+                .map(Room::getName).toList();
+        Room bestFittingRoom = roomService.getBestFittingRoom(attendees, type, date, startTime);
+        Assertions.assertEquals(expected, names);
+        Assertions.assertEquals(expected.isEmpty() ? null : expected.get(0),
+                bestFittingRoom == null ? null : bestFittingRoom.getName());
     }
 
     private static Stream<Arguments> provideArgumentsForGetAvailableRooms(){
+        return Stream.of(
+                Arguments.of(7, "VC", LocalTime.of(8,0), List.of()),
+                Arguments.of(12, "SPEC", LocalTime.of(8,0), List.of()),
+                Arguments.of(8, "RS", LocalTime.of(8,0), List.of("room3")),
+                Arguments.of(9, "RC", LocalTime.of(10,0), List.of()),
+                Arguments.of(9, "RC", LocalTime.of(13,0), List.of("room4")),
+                Arguments.of(5, "SPEC", LocalTime.of(14,0), List.of("room3", "room1", "room4")),
+                Arguments.of(2, "RS", LocalTime.of(14,0), List.of("room5", "room2", "room3", "room1", "room4"))
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideArgumentsForGetAvailableRooms")
+    public void testGetBestFittingRoomOnLargeCatalog(int attendees, String type, LocalTime startTime, List<String> expected){
+        LocalDate date = LocalDate.of(2024, 5, 27);
+        List<Room> rooms = new ArrayList<>(catalog());
+        Set<Equipment> equipments = rooms.get(3).getEquipments();
+        for (int i = 0; i < RoomService.PARALLEL_SCAN_THRESHOLD; i++) {
+            rooms.add(Room.builder().name(String.format("large%05d", i)).maxCapacity(30 + i % 20).equipments(equipments).build());
+        }
+        when(roomRepository.findAll()).thenReturn(rooms);
+        indexReservations(rooms);
+
+        Room expectedRoom = rooms.stream()
+                .filter(room -> roomService.checkRoomCapacity(room.getMaxCapacity(), attendees))
+                .filter(room -> roomService.hasRequiredEquipment(room.getEquipments(), roomService.getRequiredEquipment(type)))
+                .filter(room -> roomService.isRoomAvailable(room, date, startTime))
+                .min(RoomService.BEST_FIT).orElse(null);
+        Assertions.assertEquals(expectedRoom, roomService.getBestFittingRoom(attendees, type, date, startTime));
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideArgumentsForGetAvailableRooms")
+    public void testGetBestFittingRoomWhenNoRoomIsAvailable(int attendees, String type, LocalTime startTime, List<String> expected){
+        LocalDate date = LocalDate.of(2024, 5, 27);
+        List<Room> rooms = catalog();
+        when(roomRepository.findAll()).thenReturn(rooms);
+        indexReservations(rooms);
+        for (String name : expected) {
+            occupancyIndex.add(name, date, startTime, startTime.plusHours(1));
+        }
+
+        Assertions.assertTrue(roomService.getAvailableRooms(attendees, type, date, startTime).isEmpty());
+        Assertions.assertNull(roomService.getBestFittingRoom(attendees, type, date, startTime));
+    }
 
+    /**
+     * Five rooms, room4 being booked at 08:00 and 11:00
+     * @return List of Room
+     */
+    private static List<Room> catalog(){
         Equipment ecran = Equipment.builder().id(1L).name("ecran").build();
         Equipment webcam = Equipment.builder().id(2L).name("webcam").build();
         Equipment tableau = Equipment.builder().id(3L).name("tableau").build();
         Equipment pieuvre = Equipment.builder().id(4L).name("pieuvre").build();
-        
-        Set<Equipment> equipments1 = new HashSet<>(Arrays.asList(ecran, webcam, tableau));
-        Set<Equipment> equipments2 = new HashSet<>();
-        Set<Equipment> equipments3 = new HashSet<>(List.of(tableau));
-        Set<Equipment> equipments4 = new HashSet<>(Arrays.asList(ecran, webcam, pieuvre, tableau));
-        
-        Room room1, room2, room3, room4;
-        List<Room> rooms = new ArrayList<>();
-        room1 = Room.builder().maxCapacity(10).equipments(equipments1).build();
-        room2 = Room.builder().maxCapacity(7).equipments(equipments2).build();
-        room3 = Room.builder().maxCapacity(15).equipments(equipments3).build();
-        room4 = Room.builder().maxCapacity(20).equipments(equipments4).build();
-        room4.setReservations(new ArrayList<>(Arrays.asList(
-            Reservation.builder().date(LocalDate.of(2024, 5, 27)).startTime(LocalTime.of(8,0)).build(),
-            Reservation.builder().date(LocalDate.of(2024, 5, 27)).startTime(LocalTime.of(11,0)).build()
-            )));
-        rooms.add(room1);
-        rooms.add(room2);
-        rooms.add(room3);
-        rooms.add(room4);
-        return Stream.of(
-                Arguments.of(rooms, 7, "VC", LocalDate.of(2024, 5, 27), LocalTime.of(8,0), 0),
-                Arguments.of(rooms, 12, "SPEC", LocalDate.of(2024, 5, 27), LocalTime.of(8,0), 0),
-                Arguments.of(rooms, 8, "RS", LocalDate.of(2024, 5, 27), LocalTime.of(8,0), 1),
-                Arguments.of(rooms, 9, "RC", LocalDate.of(2024, 5, 27), LocalTime.of(10,0), 0)
-        );
+        List<Reservation> reservations = new ArrayList<>();
+        for (LocalTime startTime : List.of(LocalTime.of(8,0), LocalTime.of(11,0))) {
+            reservations.add(Reservation.builder().date(LocalDate.of(2024, 5, 27)).startTime(startTime).build());
+        }
+        return List.of(
+                Room.builder().name("room1").maxCapacity(10).equipments(Set.of(ecran, webcam, tableau)).build(),
+                Room.builder().name("room2").maxCapacity(7).equipments(Set.of()).build(),
+                Room.builder().name("room3").maxCapacity(15).equipments(Set.of(tableau)).build(),
+                Room.builder().name("room4").maxCapacity(20).equipments(Set.of(ecran, webcam, pieuvre, tableau))
+                        .reservations(reservations).build(),
+                Room.builder().name("room5").maxCapacity(3).equipments(Set.of()).build());
     }
 
-    
+    private void indexReservations(List<Room> rooms){
+        for (Room room : rooms) {
+            if (room.getReservations() == null) continue;
+            for (Reservation reservation : room.getReservations()) {
+                occupancyIndex.add(room.getName(), reservation.getDate(), reservation.getStartTime(), reservation.getEndTime());
+            }
+        }
+    }
 
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.zenika.meetingplanner.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.stream.Stream;
+
+class SlotClaimServiceTest {
+
+    @ParameterizedTest
+    @MethodSource("provideArgumentsForClaimedSlots")
+    public void testClaimedSlots(Duration bufferAfter, LocalTime startTime, LocalTime endTime, int first, int last){
+        SlotClaimService slotClaimService = new SlotClaimService(null, new RoomOccupancyIndex(Duration.ZERO, bufferAfter));
+        Assertions.assertEquals(first, slotClaimService.firstSlot(startTime));
+        Assertions.assertEquals(last, slotClaimService.lastSlot(startTime, endTime));
+    }
+
+    private static Stream<Arguments> provideArgumentsForClaimedSlots(){
+        return Stream.of(
+                Arguments.of(Duration.ofHours(1), LocalTime.of(10, 0), LocalTime.of(11, 0), 20, 23),
+                Arguments.of(Duration.ofHours(1), LocalTime.of(10, 0), null, 20, 23),
+                Arguments.of(Duration.ZERO, LocalTime.of(10, 0), LocalTime.of(10, 30), 20, 20),
+                Arguments.of(Duration.ofMinutes(15), LocalTime.of(10, 0), LocalTime.of(10, 30), 20, 21),
+                Arguments.of(Duration.ofHours(1), LocalTime.of(20, 0), LocalTime.of(23, 30), 40, 47)
+        );
+    }
+}